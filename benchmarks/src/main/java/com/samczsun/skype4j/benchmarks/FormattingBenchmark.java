@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.benchmarks;
+
+import com.samczsun.skype4j.formatting.RichText;
+import com.samczsun.skype4j.formatting.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormattingBenchmark {
+    private String[] html;
+    private String[] plain;
+    private RichText[] parsed;
+
+    @Setup
+    public void setup() {
+        html = Corpus.lines("messages.html");
+        plain = Corpus.lines("plaintext.txt");
+        parsed = new RichText[html.length];
+        for (int i = 0; i < html.length; i++) {
+            parsed[i] = RichText.fromHtml(html[i]);
+        }
+    }
+
+    @Benchmark
+    public void fromHtml(Blackhole blackhole) {
+        for (String message : html) {
+            blackhole.consume(RichText.fromHtml(message));
+        }
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        for (RichText text : parsed) {
+            blackhole.consume(text.write());
+        }
+    }
+
+    @Benchmark
+    public void parseEmojis(Blackhole blackhole) {
+        for (String message : plain) {
+            blackhole.consume(Text.parseEmojis(message));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.benchmarks;
+
+import com.samczsun.skype4j.events.Event;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.internal.RegisteredListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reflective {@link Method#invoke} against the invokers built by {@link RegisteredListener}: a generated
+ * lambda for a public listener class, and a method handle for an anonymous one
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerInvocationBenchmark {
+    private final Event event = new BenchmarkEvent();
+    private final CountingListener listener = new CountingListener();
+    private int anonymousCount;
+
+    private Method method;
+    private RegisteredListener compiled;
+    private RegisteredListener methodHandle;
+
+    @Setup
+    public void setUp() throws Exception {
+        method = CountingListener.class.getMethod("onEvent", BenchmarkEvent.class);
+        method.setAccessible(true);
+        compiled = new RegisteredListener(listener, method);
+        Listener anonymous = new Listener() {
+            @EventHandler
+            public void onEvent(BenchmarkEvent event) {
+                anonymousCount++;
+            }
+        };
+        methodHandle = new RegisteredListener(anonymous, anonymous.getClass().getMethod("onEvent", BenchmarkEvent.class));
+    }
+
+    @Benchmark
+    public int reflective() throws Exception {
+        method.invoke(listener, event);
+        return listener.count;
+    }
+
+    @Benchmark
+    public int compiled() throws Exception {
+        compiled.handleEvent(event);
+        return listener.count;
+    }
+
+    @Benchmark
+    public int methodHandle() throws Exception {
+        methodHandle.handleEvent(event);
+        return anonymousCount;
+    }
+
+    public static class BenchmarkEvent extends Event {
+    }
+
+    public static class CountingListener implements Listener {
+        private int count;
+
+        @EventHandler
+        public void onEvent(BenchmarkEvent event) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.benchmarks;
+
+import com.samczsun.skype4j.internal.MessageType;
+import com.samczsun.skype4j.internal.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    private byte[] poll;
+    private String[] metadata;
+
+    @Setup
+    public void setup() {
+        poll = Corpus.bytes("poll.json");
+        metadata = Corpus.lines("metadata.txt");
+    }
+
+    @Benchmark
+    public void parsePollResponse(Blackhole blackhole) throws IOException {
+        blackhole.consume(Utils.parseJsonObject(new ByteArrayInputStream(poll)));
+    }
+
+    @Benchmark
+    public void streamPollResponse(Blackhole blackhole) throws IOException {
+        blackhole.consume(Utils.parseJsonObject(new ByteArrayInputStream(poll), "eventMessages", blackhole::consume));
+    }
+
+    @Benchmark
+    public void stripMetadata(Blackhole blackhole) {
+        for (String content : metadata) {
+            blackhole.consume(MessageType.stripMetadata(content));
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.benchmarks;
+
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.SkypeBuilder;
+import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.Utils;
+import com.samczsun.skype4j.transport.Transport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures everything a request costs before it reaches the network: rendering the URL, assembling headers and
+ * cookies, and the retry and metrics bookkeeping around it. Connections are answered by a stub
+ * transport which never opens a socket
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+    private SkypeImpl skype;
+    private JsonObject message;
+
+    @Setup
+    public void setup() {
+        skype = (SkypeImpl) new SkypeBuilder("benchmark", "password")
+                .withAllResources()
+                .withTransport(new StubTransport())
+                .build();
+        String payload = Base64.getEncoder().encodeToString(("{\"exp\":" + (System.currentTimeMillis() / 1000 + 86400) + "}")
+                .getBytes(StandardCharsets.UTF_8));
+        skype.setSkypeToken("header." + payload + ".signature");
+        skype.setRegistrationToken("registrationToken=U2lnbmF0dXJlOjI6Mjg6QVFRQUFBQ; expires=" + (System.currentTimeMillis() / 1000 + 86400));
+        message = new JsonObject()
+                .add("clientmessageid", "1463486431000")
+                .add("content", "<b>hello</b> world")
+                .add("messagetype", "RichText")
+                .add("contenttype", "text");
+    }
+
+    @TearDown
+    public void tearDown() {
+        skype.shutdown();
+    }
+
+    @Benchmark
+    public HttpURLConnection sendMessage() throws ConnectionException {
+        return Endpoints.SEND_MESSAGE_URL.open(skype, "19:3f2a1cbd5e8a4a0e9b7c6d5e4f3a2b1c@thread.skype")
+                .expect(201, "While sending message")
+                .post(message);
+    }
+
+    @Benchmark
+    public HttpURLConnection loadMessages() throws ConnectionException {
+        return Endpoints.LOAD_MESSAGES.open(skype, "8:alice", 100)
+                .expect(200, "While loading messages")
+                .get();
+    }
+
+    @Benchmark
+    public String challengeHeader() {
+        return Utils.generateChallengeHeader();
+    }
+
+    private static class StubTransport implements Transport {
+        @Override
+        public HttpURLConnection open(URL url) {
+            return new StubConnection(url);
+        }
+
+        @Override
+        public void release(HttpURLConnection connection) {
+        }
+
+        @Override
+        public void recycle(HttpURLConnection connection) {
+        }
+    }
+
+    private static class StubConnection extends HttpURLConnection {
+        private StubConnection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public int getResponseCode() {
+            return method.equals("GET") ? 200 : 201;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return null;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            };
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+}
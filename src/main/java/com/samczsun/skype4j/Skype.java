@@ -21,6 +21,7 @@ import com.samczsun.skype4j.chat.GroupChat;
 import com.samczsun.skype4j.events.EventDispatcher;
 import com.samczsun.skype4j.exceptions.*;
 import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.metrics.Metrics;
 import com.samczsun.skype4j.participants.info.BotInfo;
 import com.samczsun.skype4j.participants.info.Contact;
 
@@ -194,6 +195,13 @@ public interface Skype {
      */
     Logger getLogger();
 
+    /**
+     * Get the metrics of the requests made by this account
+     *
+     * @return The {@link Metrics}
+     */
+    Metrics getMetrics();
+
     /**
      * Create a new group chat with the selected contacts. You will be automatically added to the group
      *
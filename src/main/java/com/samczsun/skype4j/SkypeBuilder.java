@@ -18,7 +18,15 @@ package com.samczsun.skype4j;
 
 import com.samczsun.skype4j.exceptions.handler.ErrorHandler;
 import com.samczsun.skype4j.internal.client.FullClient;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.VirtualThreads;
 import com.samczsun.skype4j.internal.client.GuestClient;
+import com.samczsun.skype4j.transport.EndpointFamily;
+import com.samczsun.skype4j.transport.OverflowPolicy;
+import com.samczsun.skype4j.transport.PollEngine;
+import com.samczsun.skype4j.transport.RateLimit;
+import com.samczsun.skype4j.transport.RetryPolicy;
+import com.samczsun.skype4j.transport.Transport;
 
 import java.util.*;
 import java.util.logging.Logger;
@@ -35,6 +43,16 @@ public class SkypeBuilder {
     private List<ErrorHandler> errorHandlers = new ArrayList<>();
     private Logger customLogger;
     private String chatId;
+    private Transport transport;
+    private RetryPolicy retryPolicy;
+    private int circuitBreakerThreshold;
+    private long circuitBreakerOpenTime;
+    private Map<EndpointFamily, RateLimit> rateLimits = new EnumMap<>(EndpointFamily.class);
+    private String endpointBase;
+    private PollEngine pollEngine;
+    private boolean virtualThreads;
+    private int eventQueueCapacity;
+    private OverflowPolicy overflowPolicy;
 
     /**
      * Construct a SkypeBuilder with the given username and password
@@ -100,6 +118,111 @@ public class SkypeBuilder {
         return this;
     }
 
+    /**
+     * Use a custom transport for all connections made by this Skype instance.
+     * By default every instance gets its own {@link com.samczsun.skype4j.transport.KeepAliveTransport}
+     *
+     * @param transport The transport to use, which may be shared between instances
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Use a custom retry policy for failed requests. By default {@link RetryPolicy#DEFAULT} is used
+     *
+     * @param retryPolicy The retry policy, or {@link RetryPolicy#NONE} to never retry
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Configure the circuit breakers kept for each endpoint. Once an endpoint fails the given number of times in a
+     * row, requests to it fail immediately until the open time has passed, after which a single trial request is let
+     * through
+     *
+     * @param failureThreshold The number of consecutive failures which opens the circuit
+     * @param openTime         The time in milliseconds before a trial request is allowed
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withCircuitBreaker(int failureThreshold, long openTime) {
+        if (failureThreshold < 1 || openTime < 0) throw new IllegalArgumentException("Invalid circuit breaker settings");
+        this.circuitBreakerThreshold = failureThreshold;
+        this.circuitBreakerOpenTime = openTime;
+        return this;
+    }
+
+    /**
+     * Limit the rate of requests made to a family of endpoints. Requests over the limit are delayed instead of
+     * failing, and the rate is lowered for a while whenever the server responds with 429 Too Many Requests.
+     * Requests are not rate limited by default; {@link EndpointFamily#getRecommendedLimit()} is a safe choice
+     *
+     * @param family The family of endpoints
+     * @param limit  The rate limit, or {@link RateLimit#UNLIMITED} to disable rate limiting
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withRateLimit(EndpointFamily family, RateLimit limit) {
+        this.rateLimits.put(family, limit);
+        return this;
+    }
+
+    /**
+     * Send every request to the given base URL instead of Skype's servers, for example to test against a local
+     * stand-in. A request to {@code https://host/path} is sent to {@code base/host/path}
+     *
+     * @param baseUrl The base URL, such as {@code http://127.0.0.1:8080}
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withEndpointBase(String baseUrl) {
+        this.endpointBase = baseUrl;
+        return this;
+    }
+
+    /**
+     * Poll for events on a shared {@link PollEngine} instead of a dedicated thread. Useful when many clients run
+     * in the same JVM
+     *
+     * @param pollEngine The engine, which should be shared between clients
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withPollEngine(PollEngine pollEngine) {
+        this.pollEngine = pollEngine;
+        return this;
+    }
+
+    /**
+     * Limit the number of received events which may wait to be handled. Without a limit, slow listeners let events
+     * pile up in memory
+     *
+     * @param capacity The maximum number of events held in memory
+     * @param policy   What to do with events which arrive while the queue is full
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withEventQueue(int capacity, OverflowPolicy policy) {
+        if (capacity < 1) throw new IllegalArgumentException("Invalid capacity");
+        if (policy == null) throw new IllegalArgumentException("No overflow policy");
+        this.eventQueueCapacity = capacity;
+        this.overflowPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Run the client's threads as virtual threads, so blocking requests no longer each hold a platform thread.
+     * Requires Java 21 or newer
+     *
+     * @return The same SkypeBuilder
+     */
+    public SkypeBuilder withVirtualThreads() {
+        if (!VirtualThreads.isSupported()) throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        this.virtualThreads = true;
+        return this;
+    }
+
     /**
      * Join a particular chat as a guest. Will have no effect if a password is specified
      *
@@ -122,12 +245,38 @@ public class SkypeBuilder {
         if (resources.isEmpty()) {
             throw new IllegalArgumentException("No resources selected");
         }
+        SkypeImpl skype;
         if (password != null) {
-            return new FullClient(username, password, resources, customLogger, errorHandlers);
+            skype = new FullClient(username, password, resources, customLogger, errorHandlers);
         } else if (chatId != null) {
-            return new GuestClient(username, chatId, resources, customLogger, errorHandlers);
+            skype = new GuestClient(username, chatId, resources, customLogger, errorHandlers);
         } else {
             throw new IllegalArgumentException("No chat specified");
         }
+        if (transport != null) {
+            skype.setTransport(transport);
+        }
+        if (retryPolicy != null) {
+            skype.setRetryPolicy(retryPolicy);
+        }
+        if (circuitBreakerThreshold > 0) {
+            skype.setCircuitBreaker(circuitBreakerThreshold, circuitBreakerOpenTime);
+        }
+        if (endpointBase != null) {
+            skype.setEndpointBase(endpointBase);
+        }
+        if (pollEngine != null) {
+            skype.setPollEngine(pollEngine);
+        }
+        if (virtualThreads) {
+            skype.setVirtualThreads(true);
+        }
+        if (overflowPolicy != null) {
+            skype.setEventQueue(eventQueueCapacity, overflowPolicy);
+        }
+        for (Map.Entry<EndpointFamily, RateLimit> entry : rateLimits.entrySet()) {
+            skype.setRateLimit(entry.getKey(), entry.getValue());
+        }
+        return skype;
     }
 }
@@ -16,6 +16,8 @@
 
 package com.samczsun.skype4j.events;
 
+import java.util.concurrent.Executor;
+
 /**
  * Represents the event dispatcher that will dispatch events to all registered listeners
  */
@@ -27,6 +29,29 @@ public interface EventDispatcher {
      */
     void registerListener(Listener listener);
 
+    /**
+     * Register a listener without keeping it reachable. It is unregistered automatically once garbage collected
+     *
+     * @param listener The listener to register
+     */
+    void registerWeakListener(Listener listener);
+
+    /**
+     * Unregister every handler of a listener
+     *
+     * @param listener The listener to unregister
+     */
+    void unregisterListener(Listener listener);
+
+    /**
+     * Register an executor which asynchronous handlers can refer to by name. Executors must be registered before the
+     * listeners which use them
+     *
+     * @param name     The name handlers refer to in {@link EventHandler#executor()}
+     * @param executor The executor
+     */
+    void registerExecutor(String name, Executor executor);
+
     /**
      * Notify all listeners that an event has occurred
      *
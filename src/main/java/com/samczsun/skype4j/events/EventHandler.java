@@ -19,7 +19,65 @@ package com.samczsun.skype4j.events;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
+/**
+ * Represents a method which handles events. The method must be public and take a single {@link Event} parameter
+ */
 @Retention(RetentionPolicy.RUNTIME)
 public @interface EventHandler {
+    /**
+     * Get the order in which this handler is called relative to other handlers of the same event
+     *
+     * @return The priority
+     */
+    EventPriority priority() default EventPriority.NORMAL;
+
+    /**
+     * Get whether this handler runs on an executor instead of the thread dispatching the event. Synchronous handlers
+     * see the events of each conversation in order
+     *
+     * @return Whether this handler is asynchronous
+     */
+    boolean async() default false;
+
+    /**
+     * Get the name of the executor an asynchronous handler runs on, as registered with
+     * {@link EventDispatcher#registerExecutor(String, java.util.concurrent.Executor)}. An empty name uses a pool the
+     * client keeps for asynchronous handlers
+     *
+     * @return The executor name
+     */
+    String executor() default "";
+
+    /**
+     * Get how many events an asynchronous handler may process at once. With a limit of one, events are handled in the
+     * order they were dispatched. At most 1024 further events wait for the handler; beyond that, dispatching waits
+     * for room, which eventually holds up polling
+     *
+     * @return The concurrency limit
+     */
+    int concurrency() default 1;
+
+    /**
+     * Get the identities of the chats this handler is limited to. Events which are not about one of these chats are
+     * not passed to the handler. An empty array accepts every event
+     *
+     * @return The chat identities
+     */
+    String[] chats() default {};
+
+    /**
+     * Get the ids of the participants this handler is limited to, as in {@link com.samczsun.skype4j.events.chat.SenderEvent}.
+     * An empty array accepts every event
+     *
+     * @return The sender ids
+     */
+    String[] senders() default {};
 
+    /**
+     * Get the message types this handler is limited to, as named by Skype, such as {@code RichText} or
+     * {@code Control/Typing}. An empty array accepts every event
+     *
+     * @return The message types
+     */
+    String[] messageTypes() default {};
 }
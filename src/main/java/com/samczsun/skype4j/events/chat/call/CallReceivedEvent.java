@@ -18,10 +18,11 @@ package com.samczsun.skype4j.events.chat.call;
 
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.User;
 
-public class CallReceivedEvent extends ChatEvent {
+public class CallReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final boolean callStarted;
 
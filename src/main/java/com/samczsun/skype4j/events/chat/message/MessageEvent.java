@@ -18,8 +18,10 @@ package com.samczsun.skype4j.events.chat.message;
 
 import com.samczsun.skype4j.chat.messages.ChatMessage;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
+import com.samczsun.skype4j.participants.Participant;
 
-public abstract class MessageEvent extends ChatEvent {
+public abstract class MessageEvent extends ChatEvent implements SenderEvent {
     private final ChatMessage message;
 
     public MessageEvent(ChatMessage message) {
@@ -30,4 +32,8 @@ public abstract class MessageEvent extends ChatEvent {
     public ChatMessage getMessage() {
         return this.message;
     }
+
+    public Participant getSender() {
+        return this.message.getSender();
+    }
 }
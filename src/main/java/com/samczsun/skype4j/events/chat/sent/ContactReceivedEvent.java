@@ -18,6 +18,7 @@ package com.samczsun.skype4j.events.chat.sent;
 
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.info.Contact;
 import com.samczsun.skype4j.participants.User;
@@ -26,7 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
-public class ContactReceivedEvent extends ChatEvent {
+public class ContactReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final List<Contact> sentContacts;
 
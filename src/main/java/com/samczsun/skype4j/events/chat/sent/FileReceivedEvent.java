@@ -19,13 +19,14 @@ package com.samczsun.skype4j.events.chat.sent;
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.chat.objects.ReceivedFile;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.User;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class FileReceivedEvent extends ChatEvent {
+public class FileReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final List<ReceivedFile> files;
 
@@ -18,11 +18,12 @@ package com.samczsun.skype4j.events.chat.sent;
 
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.formatting.IMoji;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.User;
 
-public class FlikReceivedEvent extends ChatEvent {
+public class FlikReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final IMoji sent;
 
@@ -18,6 +18,7 @@ package com.samczsun.skype4j.events.chat.sent;
 
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.formatting.Message;
 import com.samczsun.skype4j.formatting.Text;
 import com.samczsun.skype4j.participants.Participant;
@@ -26,7 +27,7 @@ import com.samczsun.skype4j.participants.User;
 import javax.xml.bind.DatatypeConverter;
 import java.io.UnsupportedEncodingException;
 
-public class LocationReceivedEvent extends ChatEvent {
+public class LocationReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final LocationInfo info;
 
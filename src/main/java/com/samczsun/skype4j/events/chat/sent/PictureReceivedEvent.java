@@ -18,12 +18,13 @@ package com.samczsun.skype4j.events.chat.sent;
 
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.User;
 
 import java.awt.image.BufferedImage;
 
-public class PictureReceivedEvent extends ChatEvent {
+public class PictureReceivedEvent extends ChatEvent implements SenderEvent {
     private final Participant sender;
     private final String originalName;
     private final BufferedImage sentImage;
@@ -17,6 +17,7 @@
 package com.samczsun.skype4j.exceptions;
 
 import com.samczsun.skype4j.internal.ExceptionHandler;
+import com.samczsun.skype4j.internal.StreamUtils;
 import com.samczsun.skype4j.internal.Utils;
 
 import java.io.ByteArrayInputStream;
@@ -40,42 +41,34 @@ public class ConnectionException extends SkypeException {
         super(null);
         this.responseCode = connection.getResponseCode();
         this.responseMessage = connection.getResponseMessage();
-        StringBuilder messageBuilder = new StringBuilder(System.lineSeparator());
-        messageBuilder.append("\t\t").append("Cause: ").append(cause).append(System.lineSeparator());
-        messageBuilder.append("\t\t").append("Response: ").append(responseCode).append(" ").append(responseMessage).append(System.lineSeparator());
         InputStream readFrom = null;
         try {
-            readFrom = connection.getInputStream();
+            readFrom = StreamUtils.getInputStream(connection);
         } catch (IOException e) {
-            readFrom = connection.getErrorStream();
+            readFrom = StreamUtils.getErrorStream(connection);
         }
-        messageBuilder.append("\t\t").append("Begin Message ")
-                .append(System.lineSeparator())
-                .append(System.lineSeparator());
+        String body = null;
         if (readFrom != null) {
             StringWriter errorLogger = new StringWriter();
             PrintWriter printWriter = new PrintWriter(errorLogger);
             try {
                 ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
                 Utils.copy(readFrom, outputStream);
-                String result = outputStream.toString("UTF-8");
-                messageBuilder.append(result);
+                body = outputStream.toString("UTF-8");
             } catch (IOException e) {
                 e.printStackTrace(printWriter);
-                messageBuilder.append(System.lineSeparator())
-                        .append("Exception: ")
-                        .append(System.lineSeparator())
-                        .append(errorLogger.toString())
-                        .append(System.lineSeparator());
+                body = System.lineSeparator() + "Exception: " + System.lineSeparator() + errorLogger.toString()
+                        + System.lineSeparator();
             }
-        } else {
-            messageBuilder.append("There was no message");
         }
-        messageBuilder.append(System.lineSeparator())
-                .append(System.lineSeparator())
-                .append("\t\t").append("End message")
-                .append(System.lineSeparator());
-        message = messageBuilder.toString();
+        this.message = buildMessage(cause, body);
+    }
+
+    public ConnectionException(String cause, int responseCode, String responseMessage, byte[] body) {
+        super(null);
+        this.responseCode = responseCode;
+        this.responseMessage = responseMessage;
+        this.message = buildMessage(cause, body == null || body.length == 0 ? null : new String(body, StandardCharsets.UTF_8));
     }
 
     public ConnectionException(String cause, IOException nested) {
@@ -94,4 +87,19 @@ public class ConnectionException extends SkypeException {
     public String getMessage() {
         return message;
     }
+
+    private String buildMessage(String cause, String body) {
+        StringBuilder messageBuilder = new StringBuilder(System.lineSeparator());
+        messageBuilder.append("\t\t").append("Cause: ").append(cause).append(System.lineSeparator());
+        messageBuilder.append("\t\t").append("Response: ").append(responseCode).append(" ").append(responseMessage).append(System.lineSeparator());
+        messageBuilder.append("\t\t").append("Begin Message ")
+                .append(System.lineSeparator())
+                .append(System.lineSeparator());
+        messageBuilder.append(body != null ? body : "There was no message");
+        messageBuilder.append(System.lineSeparator())
+                .append(System.lineSeparator())
+                .append("\t\t").append("End message")
+                .append(System.lineSeparator());
+        return messageBuilder.toString();
+    }
 }
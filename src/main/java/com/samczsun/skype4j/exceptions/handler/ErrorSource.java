@@ -13,5 +13,6 @@ public enum ErrorSource {
     SERVER_PING,
     CLOSING_WEBSOCKET,
     UPDATING_CONTACT_LIST,
-    TYPING, DISPATCHING_EVENT
+    TYPING, DISPATCHING_EVENT,
+    SPILLING_EVENTS
 }
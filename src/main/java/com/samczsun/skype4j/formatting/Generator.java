@@ -43,14 +43,16 @@ public class Generator {
                 "https://a.config.skype.com/config/v1/Skype/" + VERSION + "/SkypePersonalization?apikey=skype.com&id=self&callback=Skype4J");
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestProperty("User-Agent", "Skype4J");
-        String str = StreamUtils.readFully(connection.getInputStream());
+        connection.setRequestProperty("Accept-Encoding", StreamUtils.ACCEPT_ENCODING);
+        String str = StreamUtils.readFully(StreamUtils.getInputStream(connection));
         JsonObject object = JsonObject.readFrom(str.substring(12, str.length() - 1));
         String configloc = object.get("pes_config").asString();
         configloc = configloc.substring(0, configloc.lastIndexOf('/') + 1);
         URL config = new URL(configloc + LANG);
         connection = (HttpURLConnection) config.openConnection();
         connection.setRequestProperty("User-Agent", "Skype4J");
-        JsonObject root = Utils.parseJsonObject(connection.getInputStream());
+        connection.setRequestProperty("Accept-Encoding", StreamUtils.ACCEPT_ENCODING);
+        JsonObject root = Utils.parseJsonObject(StreamUtils.getInputStream(connection));
         JsonArray items = root.get("items").asArray();
 
         {
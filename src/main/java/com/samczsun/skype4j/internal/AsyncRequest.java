@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request queued on the async executor. Whoever gets to it first runs it, so a thread joining the request runs it
+ * itself instead of waiting for a pool thread which may never free up
+ */
+class AsyncRequest<T> extends CompletableFuture<T> implements Runnable {
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Callable<T> work;
+
+    AsyncRequest(Callable<T> work) {
+        this.work = work;
+    }
+
+    /**
+     * Queue the work on the given executor. If the executor rejects it, the returned request fails instead
+     */
+    static <T> AsyncRequest<T> submit(Executor executor, Callable<T> work) {
+        AsyncRequest<T> request = new AsyncRequest<>(work);
+        try {
+            executor.execute(request);
+        } catch (RejectedExecutionException e) {
+            request.completeExceptionally(e);
+        }
+        return request;
+    }
+
+    @Override
+    public void run() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            complete(work.call());
+        } catch (Throwable t) {
+            completeExceptionally(t);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal;
+
+import com.eclipsesource.json.JsonObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers message ids seen within a time window so that messages delivered more than once are only handled once.
+ * Ids are kept in two generations which are rotated every half window, or sooner once the current one is full, so
+ * memory stays bounded. Each generation has a Bloom filter in front of its exact set, so new ids, which are almost
+ * all of them, rarely touch the set
+ */
+public class DeduplicationWindow {
+    public static final long DEFAULT_WINDOW = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final int BITS_PER_ENTRY = 10;
+    private static final int HASHES = 7;
+
+    private final long halfWindow;
+    private final int capacity;
+    private Generation current;
+    private Generation previous;
+    private long rotatedAt;
+    private long duplicates;
+
+    public DeduplicationWindow(long window, TimeUnit unit, int capacity) {
+        if (window <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid deduplication window");
+        }
+        this.halfWindow = unit.toNanos(window) / 2;
+        this.capacity = capacity;
+        this.current = new Generation(capacity);
+        this.previous = new Generation(capacity);
+        this.rotatedAt = System.nanoTime();
+    }
+
+    /**
+     * Record an id
+     *
+     * @return Whether the id had not been seen within the window
+     */
+    public synchronized boolean firstSeen(String key) {
+        long now = System.nanoTime();
+        if (now - rotatedAt >= halfWindow * 2) {
+            previous.clear();
+            current.clear();
+            rotatedAt = now;
+        } else if (now - rotatedAt >= halfWindow || current.size >= capacity) {
+            rotate(now);
+        }
+        long hash = hash(key);
+        if (current.contains(hash, key) || previous.contains(hash, key)) {
+            duplicates++;
+            return false;
+        }
+        current.add(hash, key);
+        return true;
+    }
+
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Get the key of a message event's resource, or null if it should not be deduplicated. Only new messages, which
+     * carry a client message id, have a key: edits and deletions reuse the id of the message they change
+     */
+    public static String getKey(JsonObject resource) {
+        String link = Utils.getString(resource, "conversationLink");
+        String id = Utils.getString(resource, "id");
+        if (link == null || id == null || resource.get("clientmessageid") == null) {
+            return null;
+        }
+        return getKey(link.substring(link.lastIndexOf('/') + 1), id);
+    }
+
+    private static String getKey(String conversation, String id) {
+        return conversation + "/" + id;
+    }
+
+    private void rotate(long now) {
+        Generation expired = previous;
+        previous = current;
+        expired.clear();
+        current = expired;
+        rotatedAt = now;
+    }
+
+    // 64 bit FNV-1a, mixed so that both halves are usable as independent hashes
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static class Generation {
+        private final long[] bits;
+        private final int bitCount;
+        private final Set<String> keys = new HashSet<>();
+        private int size;
+
+        private Generation(int capacity) {
+            this.bits = new long[(capacity * BITS_PER_ENTRY + 63) / 64];
+            this.bitCount = bits.length * 64;
+        }
+
+        private boolean contains(long hash, String key) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return keys.contains(key);
+        }
+
+        private void add(long hash, String key) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            keys.add(key);
+            size++;
+        }
+
+        private void clear() {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = 0;
+            }
+            keys.clear();
+            size = 0;
+        }
+    }
+}
@@ -20,7 +20,12 @@ import com.eclipsesource.json.JsonArray;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.internal.metrics.EndpointMetricsImpl;
 import com.samczsun.skype4j.internal.utils.Encoder;
+import com.samczsun.skype4j.internal.utils.UrlTemplate;
+import com.samczsun.skype4j.transport.EndpointFamily;
+import com.samczsun.skype4j.transport.RetryPolicy;
+import com.samczsun.skype4j.transport.Transport;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -28,6 +33,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -37,6 +45,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -44,18 +53,25 @@ public class Endpoints {
     private static Map<Class<?>, Converter<?>> converters = new HashMap<>();
 
     static {
-        converters.put(InputStream.class, HttpURLConnection::getInputStream);
-        converters.put(HttpURLConnection.class, in -> in);
-        converters.put(JsonObject.class, in -> Utils.parseJsonObject(in.getInputStream()));
-        converters.put(JsonArray.class, in -> Utils.parseJsonArray(in.getInputStream()));
-        converters.put(String.class, in -> StreamUtils.readFully(in.getInputStream()));
-        converters.put(BufferedImage.class, in -> ImageIO.read(in.getInputStream()));
+        converters.put(InputStream.class, (in, body) -> body);
+        converters.put(JsonObject.class, (in, body) -> Utils.parseJsonObject(body));
+        converters.put(JsonArray.class, (in, body) -> Utils.parseJsonArray(body));
+        converters.put(String.class, (in, body) -> StreamUtils.readFully(body));
+        converters.put(BufferedImage.class, (in, body) -> ImageIO.read(body));
     }
 
-    public static <T> T convert(Class<?> type, SkypeImpl skype, HttpURLConnection in) throws IOException {
-        return (T) converters.get(type).convert(in);
+    public static <T> T convert(Class<?> type, HttpURLConnection in, EndpointMetricsImpl metrics) throws IOException {
+        if (type == HttpURLConnection.class) {
+            return (T) in;
+        }
+        InputStream body = in.getInputStream();
+        if (metrics != null) {
+            body = metrics.countReceived(body);
+        }
+        return (T) converters.get(type).convert(in, StreamUtils.decode(in, body));
     }
 
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/47.0.2526.73 Safari/537.36 Skype4J/" + SkypeImpl.VERSION;
     public static final Provider<String> AUTHORIZATION = skype -> "skype_token " + skype.getSkypeToken();
     public static final Provider<String> COOKIE = skype -> "skypetoken_asm=" + skype.getSkypeToken();
     public static final Endpoints ACCEPT_CONTACT_REQUEST = new Endpoints(
@@ -68,13 +84,16 @@ public class Endpoints {
             .cloud()
             .regtoken();
     public static final Endpoints SEND_MESSAGE_URL = new Endpoints(
-            "https://%sclient-s.gateway.messenger.live.com/v1/users/ME/conversations/%s/messages").cloud().regtoken();
+            "https://%sclient-s.gateway.messenger.live.com/v1/users/ME/conversations/%s/messages").cloud().regtoken()
+            .limit(EndpointFamily.MESSAGES);
     public static final Endpoints MODIFY_MEMBER_URL = new Endpoints(
-            "https://%sclient-s.gateway.messenger.live.com/v1/threads/%s/members/%s").cloud().regtoken();
+            "https://%sclient-s.gateway.messenger.live.com/v1/threads/%s/members/%s").cloud().regtoken()
+            .limit(EndpointFamily.MEMBERS);
     public static final Endpoints CONVERSATION_PROPERTY_GLOBAL = new Endpoints(
             "https://%sclient-s.gateway.messenger.live.com/v1/threads/%s/properties?name=%s").cloud().regtoken();
     public static final Endpoints ADD_MEMBER_URL = new Endpoints(
-            "https://client-s.gateway.messenger.live.com/v1/threads/%s/members/8:%s").regtoken();
+            "https://client-s.gateway.messenger.live.com/v1/threads/%s/members/8:%s").regtoken()
+            .limit(EndpointFamily.MEMBERS);
     public static final Endpoints LOGIN_URL = new Endpoints("https://api.skype.com/login/skypetoken");
     public static final Endpoints PING_URL = new Endpoints("https://web.skype.com/api/v1/session-ping").skypetoken();
     public static final Endpoints TOKEN_AUTH_URL = new Endpoints("https://api.asm.skype.com/v1/skypetokenauth");
@@ -102,16 +121,17 @@ public class Endpoints {
     public static final Endpoints POLL = new Endpoints(
             "https://%sclient-s.gateway.messenger.live.com/v1/users/ME/endpoints/SELF/subscriptions/%s/poll")
             .cloud()
-            .regtoken();
+            .regtoken()
+            .longPoll();
     public static final Endpoints NEW_GUEST = new Endpoints("https://join.skype.com/api/v1/users/guests");
     public static final Endpoints LEAVE_GUEST = new Endpoints("https://join.skype.com/guests/leave?threadId=%s");
     public static final Endpoints ACTIVE = new Endpoints(
             "https://%sclient-s.gateway.messenger.live.com/v1/users/ME/endpoints/%s/active").cloud().regtoken();
     public static final Endpoints LOAD_CHATS = new Endpoints(
-            "https://client-s.gateway.messenger.live.com/v1/users/ME/conversations?startTime=%s&pageSize=%s&view=msnp24Equivalent&targetType=Passport|Skype|Lync|Thread|PSTN|Agent")
+            "https://client-s.gateway.messenger.live.com/v1/users/ME/conversations?startTime=%s&pageSize=%s&view=msnp24Equivalent&targetType=Passport%%7CSkype%%7CLync%%7CThread%%7CPSTN%%7CAgent")
             .regtoken();
     public static final Endpoints LOAD_MESSAGES = new Endpoints(
-            "https://client-s.gateway.messenger.live.com/v1/users/ME/conversations/%s/messages?startTime=0&pageSize=%s&view=msnp24Equivalent|supportsMessageProperties&targetType=Passport|Skype|Lync|Thread")
+            "https://client-s.gateway.messenger.live.com/v1/users/ME/conversations/%s/messages?startTime=0&pageSize=%s&view=msnp24Equivalent%%7CsupportsMessageProperties&targetType=Passport%%7CSkype%%7CLync%%7CThread")
             .regtoken();
     public static final Endpoints OBJECTS = new Endpoints("https://api.asm.skype.com/v1/objects").defaultHeader(
             "Authorization", AUTHORIZATION);
@@ -148,8 +168,10 @@ public class Endpoints {
             "https://api.skype.com/users/self/contacts/auth-request/%s").skypetoken();
     @Deprecated
     public static final Endpoints CONTACT_INFO = new Endpoints(
-            "https://api.skype.com/users/self/contacts/profiles").skypetoken();
-    public static final Endpoints PROFILE_INFO = new Endpoints("https://api.skype.com/users/batch/profiles").skypetoken();
+            "https://api.skype.com/users/self/contacts/profiles").skypetoken()
+            .limit(EndpointFamily.PROFILES);
+    public static final Endpoints PROFILE_INFO = new Endpoints("https://api.skype.com/users/batch/profiles").skypetoken()
+            .limit(EndpointFamily.PROFILES);
     public static final Endpoints RECONNECT_WEBSOCKET = new Endpoints(
             "https://go.trouter.io/v2/h?ccid=%s&dom=web.skype.com");
     public static final Endpoints ELIGIBILITY_CHECK = new Endpoints("https://web.skype.com/api/v2/eligibility-check").skypetoken();
@@ -164,27 +186,62 @@ public class Endpoints {
     public static final Endpoints PETOKEN = new Endpoints("https://static.asm.skype.com/pes/v1/petoken").defaultHeader("Authorization", AUTHORIZATION);
     public static final Endpoints PROFILE = new Endpoints("https://api.skype.com/users/self/profile").skypetoken();
 
+    static {
+        for (Field field : Endpoints.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == Endpoints.class) {
+                try {
+                    ((Endpoints) field.get(null)).name = field.getName();
+                } catch (IllegalAccessException e) {
+                    throw new ExceptionInInitializerError(e);
+                }
+            }
+        }
+    }
+
     private boolean requiresCloud;
     private boolean requiresRegToken;
     private boolean requiresSkypeToken;
+    private boolean custom;
+    private boolean longPoll;
+    private EndpointFamily family;
+    private String name = "CUSTOM";
 
     private Map<String, Provider<String>> providers = new HashMap<>();
 
-    private String url;
+    private final String url;
+    private final UrlTemplate template;
 
     public String url() {
         return this.url;
     }
 
+    public String name() {
+        return this.name;
+    }
+
+    public UrlTemplate template() {
+        return this.template;
+    }
+
     private Endpoints(String url) {
+        this(url, UrlTemplate.compile(url));
+    }
+
+    private Endpoints(String url, UrlTemplate template) {
         this.url = url;
+        this.template = template;
+    }
+
+    private Endpoints(String url, UrlTemplate template, boolean custom) {
+        this(url, template);
+        this.custom = custom;
     }
 
     public static EndpointConnection<HttpURLConnection> custom(String url, SkypeImpl skype, String... args) {
         if (skype.isShutdownRequested()) {
             throw new IllegalStateException("API is shut down");
         }
-        return new EndpointConnection(new Endpoints(url), skype, args).as(HttpURLConnection.class);
+        return new EndpointConnection(new Endpoints(url, UrlTemplate.literal(url), true), skype, args).as(HttpURLConnection.class);
     }
 
     public EndpointConnection<HttpURLConnection> open(SkypeImpl skype, Object... args) {
@@ -209,6 +266,16 @@ public class Endpoints {
         return this;
     }
 
+    private Endpoints longPoll() {
+        this.longPoll = true;
+        return this;
+    }
+
+    private Endpoints limit(EndpointFamily family) {
+        this.family = family;
+        return this;
+    }
+
     private Endpoints defaultHeader(String key, Provider<String> val) {
         this.providers.put(key, val);
         return this;
@@ -226,13 +293,15 @@ public class Endpoints {
         private String cause;
         private boolean dontConnect;
         private boolean redirect = true;
+        private int connectTimeout;
+        private int readTimeout;
+        private EndpointMetricsImpl metrics;
 
         private EndpointConnection(Endpoints endpoint, SkypeImpl skype, Object[] args) {
             this.endpoint = endpoint;
             this.skype = skype;
             this.args = args;
-            header("User-Agent",
-                    "Mozilla/5.0 (Windows NT 10; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/47.0.2526.73 Safari/537.36 Skype4J/" + SkypeImpl.VERSION);
+            header("User-Agent", USER_AGENT);
         }
 
         public EndpointConnection<E_TYPE> header(String key, String val) {
@@ -265,7 +334,7 @@ public class Endpoints {
 
         public EndpointConnection<E_TYPE> expect(Predicate<Integer> check, String cause) {
             this.cause = cause;
-            return on(check, (connection) -> convert(clazz, skype, connection));
+            return on(check, (connection) -> convert(clazz, connection, metrics));
         }
 
         public EndpointConnection<E_TYPE> noRedirects() {
@@ -273,6 +342,12 @@ public class Endpoints {
             return this;
         }
 
+        public EndpointConnection<E_TYPE> timeout(int connectTimeout, int readTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
         public <NEW_E_TYPE> EndpointConnection<NEW_E_TYPE> as(Class<NEW_E_TYPE> clazz) {
             this.clazz = (Class<E_TYPE>) clazz;
             return (EndpointConnection<NEW_E_TYPE>) this;
@@ -315,6 +390,52 @@ public class Endpoints {
             return header("Content-Type", "application/json").connect("PUT", json.toString());
         }
 
+        public CompletableFuture<E_TYPE> getAsync() {
+            return connectAsync("GET", new byte[0]);
+        }
+
+        public CompletableFuture<E_TYPE> deleteAsync() {
+            return connectAsync("DELETE", new byte[0]);
+        }
+
+        public CompletableFuture<E_TYPE> postAsync() {
+            return connectAsync("POST", new byte[0]);
+        }
+
+        public CompletableFuture<E_TYPE> postAsync(String data) {
+            return connectAsync("POST", data);
+        }
+
+        public CompletableFuture<E_TYPE> postAsync(JsonValue json) {
+            return header("Content-Type", "application/json").connectAsync("POST", json.toString());
+        }
+
+        public CompletableFuture<E_TYPE> putAsync() {
+            return connectAsync("PUT", new byte[0]);
+        }
+
+        public CompletableFuture<E_TYPE> putAsync(String data) {
+            return connectAsync("PUT", data);
+        }
+
+        public CompletableFuture<E_TYPE> putAsync(JsonValue json) {
+            return header("Content-Type", "application/json").connectAsync("PUT", json.toString());
+        }
+
+        public CompletableFuture<E_TYPE> connectAsync(String method, String data) {
+            return this.connectAsync(method, data != null ? data.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+        }
+
+        /**
+         * Performs {@link #connect(String, byte[])} on the async executor of the Skype instance.
+         * The future completes exceptionally with whatever connect would have thrown, including exceptions
+         * thrown by handlers registered through on/expect. Joining the future through {@link Utils#join} runs the
+         * request on the joining thread if no pool thread has picked it up yet
+         */
+        public CompletableFuture<E_TYPE> connectAsync(String method, byte[] rawData) {
+            return AsyncRequest.submit(skype.getAsyncExecutor(), () -> connect(method, rawData));
+        }
+
         public E_TYPE connect(String method, String data) throws ConnectionException {
             return this.connect(method, data != null ? data.getBytes(StandardCharsets.UTF_8) : new byte[0]);
         }
@@ -332,76 +453,172 @@ public class Endpoints {
             if (this.redirect) {
                 this.on(code -> (code >= 301 && code <= 303) || code == 307 || code == 308, connection -> {
                     skype.updateCloud(connection.getHeaderField("Location"));
-                    this.url = new URL(connection.getHeaderField("Location"));
+                    this.url = new URL(skype.resolveUrl(connection.getHeaderField("Location")));
                     return this.connect(method, rawData);
                 });
             }
+            if (!headers.containsKey("Accept-Encoding")) {
+                header("Accept-Encoding", StreamUtils.ACCEPT_ENCODING);
+            }
             for (Map.Entry<String, Provider<String>> provider : endpoint.providers.entrySet()) {
                 header(provider.getKey(), provider.getValue().provide(skype));
             }
-            HttpURLConnection connection = null;
-            try {
-                if (this.url == null) { //todo could fail if cloud is updated?
-                    String surl = endpoint.url;
-                    if (endpoint.requiresCloud) {
-                        Object[] format = new Object[args.length + 1];
-                        format[0] = skype.getCloud();
-                        for (int i = 1; i < format.length; i++) {
-                            format[i] = args[i - 1].toString();
-                        }
-                        surl = String.format(surl, format);
-                    } else if (args.length > 0) {
-                        Object[] format = new Object[args.length];
-                        for (int i = 0; i < format.length; i++) {
-                            format[i] = args[i].toString();
-                        }
-                        surl = String.format(surl, args);
-                    }
-                    this.url = new URL(surl);
+            Transport transport = skype.getTransport();
+            RetryPolicy retryPolicy = this.dontConnect ? RetryPolicy.NONE : skype.getRetryPolicy();
+            boolean idempotent = retryPolicy.canRetry(method);
+            CircuitBreaker breaker = this.dontConnect || endpoint.custom ? null : skype.getCircuitBreaker(endpoint);
+            RateLimiter limiter = this.dontConnect || endpoint.family == null ? null : skype.getRateLimiter(endpoint.family);
+            this.metrics = this.dontConnect ? null : skype.getMetrics().endpoint(endpoint.name);
+            for (int retry = 0; ; retry++) {
+                if (breaker != null && !breaker.allowRequest()) {
+                    throw ExceptionHandler.generateException(cause == null ? endpoint.url : cause,
+                            new IOException("Circuit breaker open for " + endpoint.url));
                 }
-                connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod(method);
-                connection.setInstanceFollowRedirects(false);
-                for (Map.Entry<String, String> ent : headers.entrySet()) {
-                    connection.setRequestProperty(ent.getKey(), ent.getValue());
-                }
-                if (!method.equalsIgnoreCase("GET")) {
-                    connection.setDoOutput(true);
-                    if (rawData != null) {
-                        connection.getOutputStream().write(rawData);
-                    } else {
-                        connection.getOutputStream().write(new byte[0]);
+                if (limiter != null) {
+                    try {
+                        limiter.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw ExceptionHandler.generateException(cause, new InterruptedIOException("Interrupted while waiting for rate limit"));
                     }
                 }
-                if (!this.dontConnect) {
-                    if (connection.getHeaderField("Set-RegistrationToken") != null) {
-                        skype.setRegistrationToken(connection.getHeaderField("Set-RegistrationToken"));
+                HttpURLConnection connection = null;
+                boolean responded = false;
+                boolean retrying = false;
+                long delay = 0;
+                long start = 0;
+                try {
+                    if (this.url == null) { //todo could fail if cloud is updated?
+                        String surl;
+                        if (endpoint.requiresCloud) {
+                            surl = endpoint.template.render(skype.getCloudPrefix(endpoint), 1, args);
+                        } else {
+                            surl = endpoint.template.render(args);
+                        }
+                        this.url = new URL(skype.resolveUrl(surl));
+                    }
+                    connection = endpoint.longPoll ? transport.openLongPoll(url) : transport.open(url);
+                    if (connectTimeout > 0) {
+                        connection.setConnectTimeout(connectTimeout);
+                    }
+                    if (readTimeout > 0) {
+                        connection.setReadTimeout(readTimeout);
+                    }
+                    if (metrics != null) {
+                        start = metrics.begin();
+                    }
+                    try {
+                        connection.setRequestMethod(method);
+                        connection.setInstanceFollowRedirects(false);
+                        for (Map.Entry<String, String> ent : headers.entrySet()) {
+                            connection.setRequestProperty(ent.getKey(), ent.getValue());
+                        }
+                        if (!method.equalsIgnoreCase("GET")) {
+                            connection.setDoOutput(true);
+                            if (rawData != null) {
+                                connection.getOutputStream().write(rawData);
+                                if (metrics != null) {
+                                    metrics.sent(rawData.length);
+                                }
+                            } else {
+                                connection.getOutputStream().write(new byte[0]);
+                            }
+                        }
+                        if (!this.dontConnect) {
+                            connection.getResponseCode();
+                            responded = true;
+                        }
+                    } finally {
+                        // Handlers may open connections of their own, so the slot is given back before they run
+                        transport.release(connection);
+                        if (metrics != null) {
+                            if (responded) {
+                                metrics.complete(start, connection.getResponseCode());
+                            } else {
+                                metrics.fail(start);
+                            }
+                        }
                     }
-                    for (Map.Entry<Predicate<Integer>, UncheckedFunction<E_TYPE>> entry : errors.entrySet()) {
-                        if (entry.getKey().test(connection.getResponseCode())) {
+                    if (!this.dontConnect) {
+                        int code = connection.getResponseCode();
+                        if (breaker != null) {
+                            if (retryPolicy.isRetryable(code)) {
+                                breaker.onFailure();
+                            } else {
+                                breaker.onSuccess();
+                            }
+                        }
+                        long retryAfter = getRetryAfter(connection);
+                        if (limiter != null && (code == 429 || (code == 503 && retryAfter > 0))) {
+                            limiter.onThrottled(retryAfter);
+                        }
+                        if (connection.getHeaderField("Set-RegistrationToken") != null) {
+                            skype.setRegistrationToken(connection.getHeaderField("Set-RegistrationToken"));
+                        }
+                        UncheckedFunction<E_TYPE> handler = null;
+                        for (Map.Entry<Predicate<Integer>, UncheckedFunction<E_TYPE>> entry : errors.entrySet()) {
+                            if (entry.getKey().test(code)) {
+                                handler = entry.getValue();
+                                break;
+                            }
+                        }
+                        if (handler != null) {
                             try {
-                                return entry.getValue().apply(connection);
+                                return handler.apply(connection);
                             } catch (Throwable t) {
                                 Utils.sneakyThrow(t);
                             }
                         }
+                        // A throttled request was never processed, so it is safe to repeat even if it is not idempotent
+                        if (!(idempotent || code == 429) || retry >= retryPolicy.getMaxRetries() || !retryPolicy.isRetryable(code)) {
+                            throw ExceptionHandler.generateException(cause == null ? this.url.toString() : cause, connection);
+                        }
+                        retrying = true;
+                        delay = Math.max(retryPolicy.getDelay(retry), Math.min(retryAfter, retryPolicy.getMaxDelay()));
+                    } else if (HttpURLConnection.class.isAssignableFrom(clazz)) {
+                        return (E_TYPE) connection;
+                    } else {
+                        throw new IllegalArgumentException(
+                                "DontConnect requested but did not request cast to HttpURLConnection");
                     }
-                    throw ExceptionHandler.generateException(cause == null ? this.url.toString() : cause, connection);
-                } else if (HttpURLConnection.class.isAssignableFrom(clazz)) {
-                    return (E_TYPE) connection;
-                } else {
-                    throw new IllegalArgumentException(
-                            "DontConnect requested but did not request cast to HttpURLConnection");
-                }
-            } catch (IOException e) {
-                throw ExceptionHandler.generateException(cause, e);
-            } finally {
-                if (clazz != InputStream.class && clazz != HttpURLConnection.class) {
-                    if (connection != null) {
-                        connection.disconnect();
+                } catch (IOException e) {
+                    if (breaker != null && !responded) {
+                        breaker.onFailure();
+                    }
+                    if (!idempotent || retry >= retryPolicy.getMaxRetries() || e instanceof InterruptedIOException) {
+                        throw ExceptionHandler.generateException(cause, e);
+                    }
+                    retrying = true;
+                    delay = retryPolicy.getDelay(retry);
+                } finally {
+                    // Connections returned to the caller are only read for their headers, so their bodies are recycled
+                    // as well. An abandoned body would be finalized later, which can close a socket already reused
+                    if (connection != null && (retrying || (clazz != InputStream.class && !this.dontConnect))) {
+                        if (responded) {
+                            transport.recycle(connection);
+                        } else {
+                            connection.disconnect();
+                        }
                     }
                 }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw ExceptionHandler.generateException(cause, new InterruptedIOException("Interrupted while waiting to retry"));
+                }
+            }
+        }
+
+        private long getRetryAfter(HttpURLConnection connection) {
+            String retryAfter = connection.getHeaderField("Retry-After");
+            if (retryAfter != null) {
+                try {
+                    return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+                } catch (NumberFormatException ignored) {
+                }
             }
+            return 0;
         }
 
         private String serializeCookies(Map<String, String> cookies) {
@@ -418,7 +635,7 @@ public class Endpoints {
     }
 
     public interface Converter<T> {
-        T convert(HttpURLConnection connection) throws IOException;
+        T convert(HttpURLConnection connection, InputStream body) throws IOException;
     }
 
     public interface UncheckedFunction<R> extends Function<HttpURLConnection, R> {
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal;
+
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.metrics.EventQueueMetrics;
+import com.samczsun.skype4j.transport.OverflowPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits received events to the client's event executor, keeping at most a fixed number of them in memory at once
+ */
+public class EventQueue implements EventQueueMetrics {
+    private final SkypeImpl skype;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    // Events are dispatched while holding the lock so that events read back from disk keep their place in line
+    private final Lock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private int depth;
+    private long spilled;
+    private SpillFile spillFile;
+    private int generation;
+
+    private final AtomicLong totalSpilled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+
+    public EventQueue(SkypeImpl skype, int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity");
+        }
+        this.skype = skype;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Queue an event, waiting for room if the overflow policy requires it
+     *
+     * @throws InterruptedException If interrupted while waiting for room
+     */
+    public void submit(EventType type, JsonObject event) throws InterruptedException {
+        lock.lock();
+        try {
+            if (spilled > 0 && spill(event)) {
+                return;
+            }
+            boolean counted = false;
+            while (depth >= capacity) {
+                if (policy == OverflowPolicy.DROP_LOW_PRIORITY && isLowPriority(event)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (policy == OverflowPolicy.SPILL_TO_DISK && spill(event)) {
+                    return;
+                }
+                if (!counted) {
+                    blocked.incrementAndGet();
+                    counted = true;
+                }
+                notFull.await();
+            }
+            dispatch(type, event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget every queued event. Called when the executor they were queued on has been shut down
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            generation++;
+            depth = 0;
+            spilled = 0;
+            if (spillFile != null) {
+                spillFile.close();
+                spillFile = null;
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(EventType type, JsonObject event) {
+        int generation = this.generation;
+        skype.getEventExecutor().execute(getConversation(event), () -> {
+            try {
+                handle(type, event);
+            } finally {
+                completed(generation);
+            }
+        });
+        depth++;
+    }
+
+    private void completed(int generation) {
+        lock.lock();
+        try {
+            if (generation != this.generation) {
+                return;
+            }
+            depth--;
+            while (spilled > 0 && depth < capacity) {
+                JsonObject event;
+                try {
+                    event = spillFile.read();
+                } catch (IOException e) {
+                    skype.handleError(ErrorSource.SPILLING_EVENTS, e, false);
+                    spilled = 0;
+                    spillFile.close();
+                    spillFile = null;
+                    break;
+                }
+                spilled--;
+                if (spilled == 0) {
+                    spillFile.clear();
+                }
+                dispatch(EventType.getByName(Utils.getString(event, "resourceType")), event);
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean spill(JsonObject event) {
+        try {
+            if (spillFile == null) {
+                spillFile = new SpillFile();
+            }
+            spillFile.write(event);
+            spilled++;
+            totalSpilled.incrementAndGet();
+            return true;
+        } catch (IOException e) {
+            skype.handleError(ErrorSource.SPILLING_EVENTS, e, false);
+            return false;
+        }
+    }
+
+    private void handle(EventType type, JsonObject eventObj) {
+        try {
+            type.handle(skype, eventObj);
+        } catch (Throwable t) {
+            skype.handleError(ErrorSource.PARSING_MESSAGE, t, false);
+        }
+    }
+
+    private static String getConversation(JsonObject eventObj) {
+        JsonValue resource = eventObj.get("resource");
+        if (resource != null && resource.isObject()) {
+            String link = Utils.getString(resource.asObject(), "conversationLink");
+            if (link != null) {
+                return link;
+            }
+        }
+        // Events which don't belong to a conversation are kept in order among themselves
+        return "";
+    }
+
+    private static boolean isLowPriority(JsonObject eventObj) {
+        String type = Utils.getString(eventObj, "resourceType");
+        if (EventType.ENDPOINT_PRESENCE.getValue().equals(type) || EventType.USER_PRESENCE.getValue().equals(type)) {
+            return true;
+        }
+        JsonValue resource = eventObj.get("resource");
+        if (EventType.NEW_MESSAGE.getValue().equals(type) && resource != null && resource.isObject()) {
+            String messageType = Utils.getString(resource.asObject(), "messagetype");
+            return messageType != null && messageType.startsWith("Control/");
+        }
+        return false;
+    }
+
+    @Override
+    public int getDepth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getSpilled() {
+        lock.lock();
+        try {
+            return spilled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getTotalSpilled() {
+        return totalSpilled.get();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public long getBlocked() {
+        return blocked.get();
+    }
+
+    private static class SpillFile {
+        private final File file;
+        private final RandomAccessFile data;
+        private long readPosition;
+        private long writePosition;
+
+        private SpillFile() throws IOException {
+            this.file = File.createTempFile("skype4j-events-", ".spill");
+            this.file.deleteOnExit();
+            this.data = new RandomAccessFile(file, "rw");
+        }
+
+        private void write(JsonObject event) throws IOException {
+            byte[] bytes = event.toString().getBytes(StandardCharsets.UTF_8);
+            byte[] record = new byte[bytes.length + 4];
+            record[0] = (byte) (bytes.length >>> 24);
+            record[1] = (byte) (bytes.length >>> 16);
+            record[2] = (byte) (bytes.length >>> 8);
+            record[3] = (byte) bytes.length;
+            System.arraycopy(bytes, 0, record, 4, bytes.length);
+            data.seek(writePosition);
+            data.write(record);
+            writePosition += record.length;
+        }
+
+        private JsonObject read() throws IOException {
+            byte[] length = new byte[4];
+            data.seek(readPosition);
+            data.readFully(length);
+            byte[] bytes = new byte[(length[0] & 0xFF) << 24 | (length[1] & 0xFF) << 16 | (length[2] & 0xFF) << 8 | (length[3] & 0xFF)];
+            data.readFully(bytes);
+            readPosition += bytes.length + 4;
+            return JsonObject.readFrom(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        private void clear() {
+            readPosition = 0;
+            writePosition = 0;
+            try {
+                data.setLength(0);
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void close() {
+            try {
+                data.close();
+            } catch (IOException ignored) {
+            }
+            file.delete();
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.samczsun.skype4j.internal;
 
 import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
 import com.samczsun.skype4j.exceptions.SkypeException;
 import org.jsoup.helper.Validate;
 
@@ -40,6 +41,16 @@ public enum EventType {
                 throw t;
             }
         }
+
+        @Override
+        public boolean isObserved(SkypeImpl skype, JsonObject eventObj) {
+            JsonValue resource = eventObj.get("resource");
+            if (resource == null || !resource.isObject()) {
+                return true;
+            }
+            String type = Utils.getString(resource.asObject(), "messagetype");
+            return type == null || MessageType.getByName(type).isObserved(skype);
+        }
     },
     ENDPOINT_PRESENCE("EndpointPresence") {
         @Override
@@ -117,6 +128,13 @@ public enum EventType {
 
     public abstract void handle(SkypeImpl skype, JsonObject resource) throws SkypeException, IOException;
 
+    /**
+     * Check whether an event needs handling, so events nothing would observe can be dropped before they are parsed
+     */
+    public boolean isObserved(SkypeImpl skype, JsonObject eventObj) {
+        return true;
+    }
+
     static {
         for (EventType type : values()) {
             byValue.put(type.getValue(), type);
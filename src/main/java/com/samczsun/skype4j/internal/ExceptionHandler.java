@@ -106,6 +106,10 @@ public class ExceptionHandler {
         }
     }
 
+    public static ConnectionException generateException(String reason, int responseCode, String responseMessage, byte[] body) {
+        return new ConnectionException(reason, responseCode, responseMessage, body);
+    }
+
     public static ConnectionException generateException(String reason, IOException nested) {
         return new ConnectionException(reason, nested);
     }
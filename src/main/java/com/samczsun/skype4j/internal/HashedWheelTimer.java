@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A timer which keeps every pending task in a wheel of buckets, so that one thread can track any number of them.
+ * Tasks fire within about one tick of their deadline and are run on an executor, never on the timer thread
+ */
+public class HashedWheelTimer {
+    private static final Logger LOGGER = Logger.getLogger(HashedWheelTimer.class.getName());
+    private static final long DEFAULT_TICK = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private static final int MAX_WORKERS = 16;
+
+    private static volatile HashedWheelTimer shared;
+
+    private final long tick;
+    private final Queue<WheelTimeout>[] wheel;
+    private final Queue<WheelTimeout> pending = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final Thread thread;
+    private final long startTime = System.nanoTime();
+    private volatile boolean stopped;
+
+    /**
+     * Get the timer shared by every client in this JVM. Its tasks run on at most 16 daemon threads, which are only
+     * kept while tasks are actually running. Tasks which fire while every thread is busy wait for one to be free
+     */
+    public static HashedWheelTimer shared() {
+        HashedWheelTimer timer = shared;
+        if (timer == null) {
+            synchronized (HashedWheelTimer.class) {
+                timer = shared;
+                if (timer == null) {
+                    shared = timer = new HashedWheelTimer("Skype4J-Timer", DEFAULT_TICK, DEFAULT_WHEEL_SIZE,
+                            SkypeThreadFactory.newDaemonPool("Skype4J-Timer-Worker", MAX_WORKERS));
+                }
+            }
+        }
+        return timer;
+    }
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String name, long tickNanos, int wheelSize, Executor executor) {
+        if (tickNanos <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Invalid tick or wheel size");
+        }
+        this.tick = tickNanos;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+        this.executor = executor;
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Run the task once after the given delay
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer is stopped");
+        }
+        WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Run the task after the initial delay, then again each time the given delay has passed since the previous run
+     * finished, until the returned timeout is cancelled
+     */
+    public Timeout scheduleWithFixedDelay(Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        PeriodicTimeout periodic = new PeriodicTimeout(task, delay, unit);
+        periodic.next(initialDelay);
+        return periodic;
+    }
+
+    public void stop() {
+        stopped = true;
+        thread.interrupt();
+    }
+
+    private void run() {
+        long ticks = 0;
+        while (!stopped) {
+            long deadline = tick * (ticks + 1);
+            long sleep = deadline - (System.nanoTime() - startTime);
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (stopped) {
+                        return;
+                    }
+                }
+            }
+            long now = System.nanoTime() - startTime;
+            WheelTimeout timeout;
+            while ((timeout = pending.poll()) != null) {
+                if (!timeout.isCancelled()) {
+                    long target = Math.max(timeout.deadline / tick, ticks);
+                    timeout.rounds = (target - ticks) / wheel.length;
+                    wheel[(int) (target & (wheel.length - 1))].add(timeout);
+                }
+            }
+            Queue<WheelTimeout> bucket = wheel[(int) (ticks & (wheel.length - 1))];
+            for (int i = bucket.size(); i > 0; i--) {
+                timeout = bucket.poll();
+                if (timeout.isCancelled()) {
+                    continue;
+                }
+                if (timeout.rounds > 0 || timeout.deadline > now) {
+                    timeout.rounds--;
+                    bucket.add(timeout);
+                } else {
+                    timeout.expire();
+                }
+            }
+            ticks++;
+        }
+    }
+
+    /**
+     * Represents a pending task
+     */
+    public interface Timeout {
+        /**
+         * Cancel the task. A run which has already started is not interrupted
+         *
+         * @return Whether the task was cancelled before it ran
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+    }
+
+    private class WheelTimeout implements Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long rounds;
+
+        private WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(WAITING, EXPIRED)) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                        } catch (Throwable t) {
+                            LOGGER.log(Level.SEVERE, "Timer task failed", t);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Could not run timer task", e);
+                }
+            }
+        }
+    }
+
+    private class PeriodicTimeout implements Timeout, Runnable {
+        private final Runnable task;
+        private final long delay;
+        private final TimeUnit unit;
+        private final AtomicReference<Timeout> current = new AtomicReference<>();
+        private volatile boolean cancelled;
+
+        private PeriodicTimeout(Runnable task, long delay, TimeUnit unit) {
+            this.task = task;
+            this.delay = delay;
+            this.unit = unit;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                next(delay);
+            }
+        }
+
+        private void next(long delay) {
+            if (!cancelled && !stopped) {
+                current.set(schedule(this, delay, unit));
+                if (cancelled) {
+                    current.get().cancel();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            cancelled = true;
+            Timeout timeout = current.get();
+            return timeout != null && timeout.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
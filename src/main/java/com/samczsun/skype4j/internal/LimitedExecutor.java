@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs tasks on the backing executor with at most a fixed number in flight at once. With a limit of one, tasks run in
+ * submission order. At most a fixed number of tasks wait to run; once that many are queued, submitting blocks until
+ * one has started, which holds up the thread dispatching events and, in turn, polling
+ */
+public class LimitedExecutor implements Executor {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final Logger LOGGER = Logger.getLogger(LimitedExecutor.class.getName());
+    // Tasks run per turn before a busy worker gives its thread back to the others
+    private static final int BATCH_SIZE = 16;
+    private static final ThreadLocal<LimitedExecutor> DRAINING = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final int limit;
+    private final int capacity;
+    private final Lock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private int running;
+
+    public LimitedExecutor(Executor executor, int limit) {
+        this(executor, limit, DEFAULT_CAPACITY);
+    }
+
+    public LimitedExecutor(Executor executor, int limit, int capacity) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.executor = executor;
+        this.limit = limit;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queue a task, waiting for room if the queue is full
+     *
+     * @throws RejectedExecutionException If interrupted while waiting, or if the backing executor rejects the task
+     */
+    @Override
+    public void execute(Runnable task) {
+        lock.lock();
+        try {
+            // A task queueing more work here would be waiting for itself to finish
+            if (DRAINING.get() != this) {
+                while (tasks.size() >= capacity) {
+                    try {
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for room", e);
+                    }
+                }
+            }
+            tasks.add(task);
+            if (running >= limit) {
+                return;
+            }
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        submit();
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void submit() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            lock.lock();
+            try {
+                running--;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private Runnable next() {
+        lock.lock();
+        try {
+            Runnable task = tasks.poll();
+            if (task == null) {
+                running--;
+            } else {
+                notFull.signal();
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        LimitedExecutor previous = DRAINING.get();
+        DRAINING.set(this);
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = next();
+                if (task == null) {
+                    return;
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    LOGGER.log(Level.SEVERE, "Task failed", t);
+                }
+            }
+        } finally {
+            DRAINING.set(previous);
+        }
+        // Give the thread back, and take another turn at the back of the line if there is more to do
+        lock.lock();
+        try {
+            if (tasks.isEmpty()) {
+                running--;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            submit();
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+}
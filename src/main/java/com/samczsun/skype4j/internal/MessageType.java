@@ -23,6 +23,7 @@ import com.samczsun.skype4j.chat.messages.ChatMessage;
 import com.samczsun.skype4j.chat.messages.ReceivedMessage;
 import com.samczsun.skype4j.chat.messages.SentMessage;
 import com.samczsun.skype4j.chat.objects.ReceivedFile;
+import com.samczsun.skype4j.events.Event;
 import com.samczsun.skype4j.events.UnsupportedEvent;
 import com.samczsun.skype4j.events.chat.ChatJoinedEvent;
 import com.samczsun.skype4j.events.chat.participant.action.ModeratedUpdateEvent;
@@ -68,86 +69,20 @@ public enum MessageType {
     UNKNOWN("Unknown") {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) {
-            skype.getEventDispatcher().callEvent(new UnsupportedEvent(name(), resource.toString()));
+            callEvent(skype, new UnsupportedEvent(name(), resource.toString()));
             throw new IllegalArgumentException("Unknown type!");
         }
     },
     TEXT_INTERNAL("TextInternalShouldNotBeUsedOutside") {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws SkypeException, IOException {
-            ChatImpl chat = getChat(resource, skype);
-            ParticipantImpl user = getSender(resource, chat);
-
-            String content = Utils.getString(resource, "content");
-
-            if (content == null) {
-                final String clientId = resource.get("skypeeditedid").asString();
-                ChatMessage m = user.getMessageById(clientId);
-                if (m != null) {
-                    MessageDeletedEvent event = new MessageDeletedEvent(m);
-                    skype.getEventDispatcher().callEvent(event);
-                    ((ChatMessageImpl) m).edit0(null);
-                }
-                return;
-            }
-
-            content = stripMetadata(content);
-
-            if (resource.get("clientmessageid") != null) { // New message
-                String clientId = resource.get("clientmessageid").asString();
-                String id = resource.get("id").asString();
-                if (resource.get("content") == null) {
-                    throw new IllegalArgumentException("Null content? " + resource);
-                }
-                if (user != null) {
-                    ChatMessageImpl m = Factory.createMessage(chat, user, id, clientId, System.currentTimeMillis(),
-                            Message.fromHtml(content), skype);
-                    chat.onMessage(m);
-                    if (m instanceof ReceivedMessage) {
-                        MessageReceivedEvent event = new MessageReceivedEvent((ReceivedMessage) m);
-                        skype.getEventDispatcher().callEvent(event);
-                    } else {
-                        MessageSentEvent event = new MessageSentEvent((SentMessage) m);
-                        skype.getEventDispatcher().callEvent(event);
-                    }
-                } else {
-                    throw new IllegalArgumentException("Null sender? " + resource);
-                }
-            } else if (resource.get("skypeeditedid") != null) {
-                final String clientId = resource.get("skypeeditedid").asString();
-                ChatMessage m = user.getMessageById(clientId);
-                if (m != null) {
-                    MessageEditedEvent evnt = new MessageEditedEvent(m, content);
-                    skype.getEventDispatcher().callEvent(evnt);
-                    ((ChatMessageImpl) m).edit0(Message.fromHtml(content));
-                }
-            } else {
-                String clientId = null;
-                String id = resource.get("id").asString();
-                if (resource.get("content") == null) {
-                    throw new IllegalArgumentException("Null content? " + resource);
-                }
-                if (user != null) {
-                    ChatMessageImpl m = Factory.createMessage(chat, user, id, clientId, System.currentTimeMillis(),
-                            Message.fromHtml(content), skype);
-                    chat.onMessage(m);
-                    if (m instanceof ReceivedMessage) {
-                        MessageReceivedEvent event = new MessageReceivedEvent((ReceivedMessage) m);
-                        skype.getEventDispatcher().callEvent(event);
-                    } else {
-                        MessageSentEvent event = new MessageSentEvent((SentMessage) m);
-                        skype.getEventDispatcher().callEvent(event);
-                    }
-                } else {
-                    throw new IllegalArgumentException("Null sender? " + resource);
-                }
-            }
+            handleText(skype, resource, getValue());
         }
     },
     TEXT("Text") {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws SkypeException, IOException {
-            MessageType.TEXT_INTERNAL.handle(skype, resource);
+            handleText(skype, resource, getValue());
         }
     },
     RICH_TEXT("RichText") {
@@ -168,11 +103,11 @@ public enum MessageType {
                     throw new IllegalArgumentException("Unknown rich type " + type);
                 }
             } else {
-                MessageType.TEXT_INTERNAL.handle(skype, resource);
+                handleText(skype, resource, getValue());
             }
         }
     },
-    RICH_TEXT_CONTACTS("RichText/Contacts") {
+    RICH_TEXT_CONTACTS("RichText/Contacts", ContactReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             String content = Utils.getString(resource, "content");
@@ -204,13 +139,13 @@ public enum MessageType {
 
             if (contacts.size() > 0) {
                 ContactReceivedEvent event = new ContactReceivedEvent(chat, initiator, contacts);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             } else {
                 throw new IllegalArgumentException("No contacts sent");
             }
         }
     },
-    RICH_TEXT_FILES("RichText/Files") {
+    RICH_TEXT_FILES("RichText/Files", FileReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             String content = Utils.getString(resource, "content");
@@ -235,10 +170,10 @@ public enum MessageType {
                     .collect(Collectors.toList());
 
             FileReceivedEvent event = new FileReceivedEvent(chat, initiator, receivedFiles);
-            skype.getEventDispatcher().callEvent(event);
+            callEvent(skype, event);
         }
     },
-    RICH_TEXT_SMS("RichText/Sms") {
+    RICH_TEXT_SMS("RichText/Sms", SmsReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException { //Implemented via fullExperience
             String content = resource.get("content").asString();
@@ -252,13 +187,13 @@ public enum MessageType {
                 ChatMessage chatmessage = Factory.createMessage(c, u, null, null, System.currentTimeMillis(),
                         Message.fromHtml(message), skype); //No clientmessageid?
                 SmsReceivedEvent event = new SmsReceivedEvent((ReceivedMessage) chatmessage);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             } else {
                 throw new IllegalArgumentException("Sms event did not conform to format expected");
             }
         }
     },
-    RICH_TEXT_LOCATION("RichText/Location") {
+    RICH_TEXT_LOCATION("RichText/Location", LocationReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException { //Implemented via fullExperience
             String content = resource.get("content").asString();
@@ -269,13 +204,13 @@ public enum MessageType {
                 String location = m.group(1);
                 String text = m.group(2);
                 LocationReceivedEvent event = new LocationReceivedEvent(c, u, new LocationReceivedEvent.LocationInfo(location, text));
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             } else {
                 throw conformError("Location");
             }
         }
     },
-    RICH_TEXT_URI_OBJECT("RichText/UriObject") {
+    RICH_TEXT_URI_OBJECT("RichText/UriObject", PictureReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             String from = resource.get("from").asString();
@@ -318,13 +253,13 @@ public enum MessageType {
                         .as(BufferedImage.class)
                         .expect(200, "While getting URI object")
                         .get();
-                skype.getEventDispatcher().callEvent(new PictureReceivedEvent(c, u, meta.attr("originalName"), img));
+                callEvent(skype, new PictureReceivedEvent(c, u, meta.attr("originalName"), img));
             } else {
                 throw new IllegalArgumentException("Unknown meta type " + meta.attr("type"));
             }
         }
     },
-    RICH_TEXT_MEDIA_FLIK_MSG("RichText/Media_FlikMsg") {
+    RICH_TEXT_MEDIA_FLIK_MSG("RichText/Media_FlikMsg", FlikReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, IOException, ChatNotFoundException {
             ChatImpl chat = getChat(resource, skype);
@@ -336,7 +271,7 @@ public enum MessageType {
             String id = (id = matcher.group(1)).substring(id.lastIndexOf('/') + 1, id.length());
             IMoji flik = Moji.getById(id);
             Validate.notNull(flik, "No such flik");
-            skype.getEventDispatcher().callEvent(new FlikReceivedEvent(chat, sender, flik));
+            callEvent(skype, new FlikReceivedEvent(chat, sender, flik));
         }
     },
     EVENT_SKYPE_VIDEO_MESSAGE("Event/SkypeVideoMessage") {
@@ -353,7 +288,7 @@ public enum MessageType {
 //                throw new IllegalArgumentException("Null user");
 //            }
 //            String location = "https://vm.skype.com/users/8:" + skype.getUsername() + "/video_mails/" + sid;
-            skype.getEventDispatcher().callEvent(new UnsupportedEvent(name(), resource.toString()));
+            callEvent(skype, new UnsupportedEvent(name(), resource.toString()));
             throw new IllegalArgumentException("This event needs implementation");
         }
     },
@@ -388,11 +323,11 @@ public enum MessageType {
             } else {
                 event = new ParticipantAddedEvent(initiator, usersAdded);
             }
-            skype.getEventDispatcher().callEvent(event);
+            callEvent(skype, event);
 
             if (addedSelf) {
                 ChatJoinedEvent cje = new ChatJoinedEvent(chat, initiator);
-                skype.getEventDispatcher().callEvent(cje);
+                callEvent(skype, cje);
             }
         }
     },
@@ -417,16 +352,16 @@ public enum MessageType {
                 throw new IllegalArgumentException("No targets");
             } else {
                 ParticipantRemovedEvent event = new ParticipantRemovedEvent(initiator, usersRemoved);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             }
 
             if (removedSelf) {
                 ChatQuitEvent event = new ChatQuitEvent(chat, initiator);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             }
         }
     },
-    THREAD_ACTIVITY_ROLE_UPDATE("ThreadActivity/RoleUpdate") {
+    THREAD_ACTIVITY_ROLE_UPDATE("ThreadActivity/RoleUpdate", RoleUpdateEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             ChatImpl chat = getChat(resource, skype);
@@ -439,7 +374,7 @@ public enum MessageType {
                 Participant target = chat.getParticipant(roleMatcher.group(1).substring(2));
                 Participant.Role role = Participant.Role.getByName(roleMatcher.group(2));
                 RoleUpdateEvent event = new RoleUpdateEvent(initiator, time, target, role);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
             } else {
                 throw conformError("RoleUpdate");
             }
@@ -457,7 +392,7 @@ public enum MessageType {
                 long time = Long.parseLong(timeMatcher.group(1));
                 String topic = valueMatcher.groupCount() > 0 ? HtmlEscape.unescapeHtml(valueMatcher.group(1)) : "";
                 TopicUpdateEvent event = new TopicUpdateEvent(initiator, time, ((ChatGroup) chat).getTopic(), topic);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
                 ((ChatGroup) chat).updateTopic(topic);
             } else {
                 throw conformError("TopicUpdate");
@@ -476,7 +411,7 @@ public enum MessageType {
                 long time = Long.parseLong(timeMatcher.group(1));
                 String picurl = valueMatcher.group(1).substring(4);
                 PictureUpdateEvent event = new PictureUpdateEvent(initiator, time, picurl);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
                 ((ChatGroup) chat).updatePicture(picurl);
             } else {
                 throw conformError("PictureUpdate");
@@ -496,7 +431,7 @@ public enum MessageType {
                 boolean enabled = Boolean.parseBoolean(valueMatcher.group(1));
                 OptionUpdateEvent event = new OptionUpdateEvent(initiator, time,
                         GroupChat.Option.HISTORY_DISCLOSED, enabled);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
                 ((ChatGroup) chat).updateOption(GroupChat.Option.HISTORY_DISCLOSED, enabled);
             } else {
                 throw conformError("HistoryDisclosedUpdate");
@@ -516,14 +451,14 @@ public enum MessageType {
                 boolean enabled = Boolean.parseBoolean(valueMatcher.group(1));
                 OptionUpdateEvent event = new OptionUpdateEvent(initiator, time,
                         GroupChat.Option.JOINING_ENABLED, enabled);
-                skype.getEventDispatcher().callEvent(event);
+                callEvent(skype, event);
                 ((ChatGroup) chat).updateOption(GroupChat.Option.JOINING_ENABLED, enabled);
             } else {
                 throw conformError("JoiningEnabledUpdate");
             }
         }
     },
-    THREAD_ACTIVITY_LEGACY_MEMBER_ADDED("ThreadActivity/LegacyMemberAdded") {
+    THREAD_ACTIVITY_LEGACY_MEMBER_ADDED("ThreadActivity/LegacyMemberAdded", LegacyMemberAddedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, IOException, ChatNotFoundException {
             String content = Utils.getString(resource, "content");
@@ -543,10 +478,10 @@ public enum MessageType {
             if (user == null) {
                 throw new IllegalArgumentException("Null user");
             }
-            skype.getEventDispatcher().callEvent(new LegacyMemberAddedEvent(user));
+            callEvent(skype, new LegacyMemberAddedEvent(user));
         }
     },
-    THREAD_ACTIVITY_LEGACY_MEMBER_UPGRADED("ThreadActivity/LegacyMemberUpgraded") {
+    THREAD_ACTIVITY_LEGACY_MEMBER_UPGRADED("ThreadActivity/LegacyMemberUpgraded", LegacyMemberUpgradedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, IOException, ChatNotFoundException {
             String content = Utils.getString(resource, "content");
@@ -566,10 +501,10 @@ public enum MessageType {
             if (user == null) {
                 throw new IllegalArgumentException("Null user");
             }
-            skype.getEventDispatcher().callEvent(new LegacyMemberUpgradedEvent(user));
+            callEvent(skype, new LegacyMemberUpgradedEvent(user));
         }
     },
-    EVENT_CALL("Event/Call") {
+    EVENT_CALL("Event/Call", CallReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             String from = resource.get("from").asString();
@@ -581,10 +516,10 @@ public enum MessageType {
             ChatImpl c = getChat(url, skype);
             Participant u = getUser(from, c);
             CallReceivedEvent event = new CallReceivedEvent(c, u, !finished);
-            skype.getEventDispatcher().callEvent(event);
+            callEvent(skype, event);
         }
     },
-    CONTROL_TYPING("Control/Typing") {
+    CONTROL_TYPING("Control/Typing", TypingReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             String from = resource.get("from").asString();
@@ -593,29 +528,29 @@ public enum MessageType {
             ChatImpl c = getChat(url, skype);
             Participant u = getUser(from, c);
             TypingReceivedEvent event = new TypingReceivedEvent(c, u, true);
-            skype.getEventDispatcher().callEvent(event);
+            callEvent(skype, event);
         }
     },
-    CONTROL_CLEAR_TYPING("Control/ClearTyping") {
+    CONTROL_CLEAR_TYPING("Control/ClearTyping", TypingReceivedEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws ConnectionException, ChatNotFoundException, IOException {
             ChatImpl c = getChat(resource.get("conversationLink").asString(), skype);
             Participant u = getUser(resource.get("from").asString(), c);
             TypingReceivedEvent event = new TypingReceivedEvent(c, u, false);
-            skype.getEventDispatcher().callEvent(event);
+            callEvent(skype, event);
         }
     },
     CONTROL_LIVE_STATE("Control/LiveState") {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) { //No plans to implement sound API as of yet
-//            skype.getEventDispatcher().callEvent(new UnsupportedEvent(name(), resource.toString()));
+//            callEvent(skype, new UnsupportedEvent(name(), resource.toString()));
 //            skype.getLogger().log(Level.SEVERE, name() + " is in need of implementation! Please open a ticket with the following JSON data");
 //            skype.getLogger().log(Level.SEVERE, resource.toString());
         }
     },
 
     // lol this one's not even implemented by Skype Web yet
-    THREAD_ACTIVITY_MODERATED_THREAD_UPDATE("ThreadActivity/ModeratedThreadUpdate") {
+    THREAD_ACTIVITY_MODERATED_THREAD_UPDATE("ThreadActivity/ModeratedThreadUpdate", ModeratedUpdateEvent.class) {
         @Override
         public void handle(SkypeImpl skype, JsonObject resource) throws SkypeException, IOException {
             String from = resource.get("from").asString();
@@ -631,7 +566,7 @@ public enum MessageType {
 
             Boolean enabled = Boolean.parseBoolean(matcher.group(1));
 
-            skype.getEventDispatcher().callEvent(new ModeratedUpdateEvent(u, enabled));
+            callEvent(skype, new ModeratedUpdateEvent(u, enabled));
         }
     };
 
@@ -680,9 +615,109 @@ public enum MessageType {
             Pattern.compile("<value>(true|false)</value>");
 
     private final String value;
+    // The events this type produces when that is all it does. Types which also update the client leave this empty
+    private final Class<?>[] events;
 
-    MessageType(String value) {
+    MessageType(String value, Class<?>... events) {
         this.value = value;
+        this.events = events;
+    }
+
+    /**
+     * Check whether this type needs handling, either because it updates the client or because a listener would see
+     * the events it produces
+     */
+    public boolean isObserved(SkypeImpl skype) {
+        if (events.length == 0) {
+            return true;
+        }
+        for (Class<?> event : events) {
+            if (skype.getEventDispatcher().hasListeners(event, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void callEvent(SkypeImpl skype, Event event) {
+        callEvent(skype, event, getValue());
+    }
+
+    void callEvent(SkypeImpl skype, Event event, String wireType) {
+        skype.getEventDispatcher().callEvent(event, wireType);
+    }
+
+    /**
+     * Handle a plain text message, dispatching its events under the message type it arrived with
+     */
+    void handleText(SkypeImpl skype, JsonObject resource, String wireType) throws SkypeException, IOException {
+        ChatImpl chat = getChat(resource, skype);
+        ParticipantImpl user = getSender(resource, chat);
+
+        String content = Utils.getString(resource, "content");
+
+        if (content == null) {
+            final String clientId = resource.get("skypeeditedid").asString();
+            ChatMessage m = user.getMessageById(clientId);
+            if (m != null) {
+                MessageDeletedEvent event = new MessageDeletedEvent(m);
+                callEvent(skype, event, wireType);
+                ((ChatMessageImpl) m).edit0(null);
+            }
+            return;
+        }
+
+        content = stripMetadata(content);
+
+        if (resource.get("clientmessageid") != null) { // New message
+            String clientId = resource.get("clientmessageid").asString();
+            String id = resource.get("id").asString();
+            if (resource.get("content") == null) {
+                throw new IllegalArgumentException("Null content? " + resource);
+            }
+            if (user != null) {
+                ChatMessageImpl m = Factory.createMessage(chat, user, id, clientId, System.currentTimeMillis(),
+                        Message.fromHtml(content), skype);
+                chat.onMessage(m);
+                if (m instanceof ReceivedMessage) {
+                    MessageReceivedEvent event = new MessageReceivedEvent((ReceivedMessage) m);
+                    callEvent(skype, event, wireType);
+                } else {
+                    MessageSentEvent event = new MessageSentEvent((SentMessage) m);
+                    callEvent(skype, event, wireType);
+                }
+            } else {
+                throw new IllegalArgumentException("Null sender? " + resource);
+            }
+        } else if (resource.get("skypeeditedid") != null) {
+            final String clientId = resource.get("skypeeditedid").asString();
+            ChatMessage m = user.getMessageById(clientId);
+            if (m != null) {
+                MessageEditedEvent evnt = new MessageEditedEvent(m, content);
+                callEvent(skype, evnt, wireType);
+                ((ChatMessageImpl) m).edit0(Message.fromHtml(content));
+            }
+        } else {
+            String clientId = null;
+            String id = resource.get("id").asString();
+            if (resource.get("content") == null) {
+                throw new IllegalArgumentException("Null content? " + resource);
+            }
+            if (user != null) {
+                ChatMessageImpl m = Factory.createMessage(chat, user, id, clientId, System.currentTimeMillis(),
+                        Message.fromHtml(content), skype);
+                chat.onMessage(m);
+                if (m instanceof ReceivedMessage) {
+                    MessageReceivedEvent event = new MessageReceivedEvent((ReceivedMessage) m);
+                    callEvent(skype, event, wireType);
+                } else {
+                    MessageSentEvent event = new MessageSentEvent((SentMessage) m);
+                    callEvent(skype, event, wireType);
+                }
+            } else {
+                throw new IllegalArgumentException("Null sender? " + resource);
+            }
+        }
     }
 
     public String getValue() {
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal;
+
+import com.samczsun.skype4j.transport.RateLimit;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiter {
+    private static final double MIN_RATE_FRACTION = 1.0 / 16;
+    private static final double RECOVERY_SECONDS = 30;
+    private static final long DEFAULT_PAUSE = 1000;
+
+    private final double rate;
+    private final double burst;
+
+    private double currentRate;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil = lastRefill;
+
+    public RateLimiter(RateLimit limit) {
+        this.rate = limit.getPermitsPerSecond();
+        this.burst = limit.getBurst();
+        this.currentRate = rate;
+        this.tokens = burst;
+    }
+
+    public boolean isUnlimited() {
+        return Double.isInfinite(rate);
+    }
+
+    public void acquire() throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            // Tokens are reserved up front, so waiting callers are served in order and nobody has to poll
+            tokens -= 1;
+            wait = tokens >= 0 ? 0 : (long) (-tokens / currentRate * TimeUnit.SECONDS.toNanos(1));
+            wait += Math.max(0, pausedUntil - now);
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    public synchronized void onThrottled(long retryAfter) {
+        long now = System.nanoTime();
+        refill(now);
+        pausedUntil = Math.max(pausedUntil, now + TimeUnit.MILLISECONDS.toNanos(retryAfter > 0 ? retryAfter : DEFAULT_PAUSE));
+        currentRate = Math.max(rate * MIN_RATE_FRACTION, currentRate / 2);
+        tokens = Math.min(tokens, 0);
+    }
+
+    public synchronized double getCurrentRate() {
+        return this.currentRate;
+    }
+
+    private void refill(long now) {
+        if (now - pausedUntil < 0) {
+            lastRefill = now;
+            return;
+        }
+        double elapsed = (now - Math.max(lastRefill, pausedUntil)) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRefill = now;
+        if (elapsed <= 0) {
+            return;
+        }
+        tokens = Math.min(burst, tokens + elapsed * currentRate);
+        if (currentRate < rate) {
+            currentRate = Math.min(rate, currentRate + rate * elapsed / RECOVERY_SECONDS);
+        }
+    }
+}
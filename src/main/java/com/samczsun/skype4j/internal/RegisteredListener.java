@@ -17,26 +17,161 @@
 package com.samczsun.skype4j.internal;
 
 import com.samczsun.skype4j.events.Event;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.EventPriority;
 import com.samczsun.skype4j.events.Listener;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class RegisteredListener {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+
     private final Listener listener;
+    private final Reference<? extends Listener> reference;
     private final Method method;
+    private final Invoker invoker;
+    private final EventPriority priority;
+    private final Executor executor;
+    private final Set<String> chats;
+    private final Set<String> senders;
+    private final Set<String> messageTypes;
 
     public RegisteredListener(Listener l, Method m) {
+        this(l, null, m, null);
+    }
+
+    public RegisteredListener(Listener l, Reference<? extends Listener> reference, Method m, Executor executor) {
+        EventHandler annotation = m.getAnnotation(EventHandler.class);
         this.listener = l;
+        this.reference = reference;
         this.method = m;
         this.method.setAccessible(true);
+        this.invoker = createInvoker(m);
+        this.priority = annotation == null ? EventPriority.NORMAL : annotation.priority();
+        this.executor = executor;
+        this.chats = annotation == null ? null : toFilter(annotation.chats());
+        this.senders = annotation == null ? null : toFilter(annotation.senders());
+        this.messageTypes = annotation == null ? null : toFilter(annotation.messageTypes());
     }
 
     public void handleEvent(Event e) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-        this.method.invoke(listener, e);
+        Listener listener = getListener();
+        if (listener == null) {
+            return;
+        }
+        try {
+            this.invoker.invoke(listener, e);
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Get the listener, or null if it was only weakly referenced and has since been collected
+     */
+    public Listener getListener() {
+        return this.reference == null ? this.listener : this.reference.get();
     }
 
     public Method getMethod() {
         return this.method;
     }
+
+    public EventPriority getPriority() {
+        return this.priority;
+    }
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public Set<String> getChats() {
+        return this.chats;
+    }
+
+    public Set<String> getSenders() {
+        return this.senders;
+    }
+
+    public Set<String> getMessageTypes() {
+        return this.messageTypes;
+    }
+
+    public boolean isFiltered() {
+        return this.chats != null || this.senders != null || this.messageTypes != null;
+    }
+
+    public boolean matches(String chat, String sender, String messageType) {
+        return (this.chats == null || this.chats.contains(chat))
+                && (this.senders == null || this.senders.contains(sender))
+                && (this.messageTypes == null || this.messageTypes.contains(messageType));
+    }
+
+    private static Set<String> toFilter(String[] values) {
+        return values.length == 0 ? null : new HashSet<>(Arrays.asList(values));
+    }
+
+    private static Invoker createInvoker(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Could not access " + method, e);
+        }
+        if (canSpinLambda(method)) {
+            try {
+                return (Invoker) LambdaMetafactory.metafactory(lookup, "invoke", MethodType.methodType(Invoker.class), INVOKER_TYPE, handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0]))
+                        .getTarget()
+                        .invokeExact();
+            } catch (Throwable ignored) {
+                // Fall through to the method handle invoker
+            }
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Listener.class);
+        }
+        MethodHandle target = handle.asType(INVOKER_TYPE);
+        return (listener, event) -> {
+            target.invokeExact(listener, event);
+        };
+    }
+
+    /**
+     * The generated class lives alongside this one, so it can only link against types it can see and access
+     */
+    private static boolean canSpinLambda(Method method) {
+        return !Modifier.isStatic(method.getModifiers())
+                && Modifier.isPublic(method.getModifiers())
+                && isAccessible(method.getDeclaringClass())
+                && isAccessible(method.getParameterTypes()[0]);
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, RegisteredListener.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    interface Invoker {
+        void invoke(Listener listener, Event event) throws Throwable;
+    }
 }
@@ -17,61 +17,308 @@
 package com.samczsun.skype4j.internal;
 
 import com.samczsun.skype4j.Skype;
+import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.events.Event;
 import com.samczsun.skype4j.events.EventDispatcher;
 import com.samczsun.skype4j.events.EventHandler;
 import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.events.chat.SenderEvent;
 import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.participants.Participant;
+import org.jsoup.helper.Validate;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 
 public class SkypeEventDispatcher implements EventDispatcher {
+    private static final RegisteredListener[] NO_LISTENERS = new RegisteredListener[0];
+    private static final int[] NO_INDICES = new int[0];
+
     private Skype instance;
 
     public SkypeEventDispatcher(Skype instance) {
         this.instance = instance;
     }
 
-    private final Map<Class<?>, List<RegisteredListener>> listeners = Collections.synchronizedMap(new HashMap<>());
+    private final Map<Class<?>, RegisteredListener[]> listeners = new HashMap<>();
+    private final ReferenceQueue<Listener> collected = new ReferenceQueue<>();
+    private final Map<String, Executor> executors = new ConcurrentHashMap<>();
+    private volatile Map<Class<?>, DispatchTable> baked = new ConcurrentHashMap<>();
+
+    public void registerExecutor(String name, Executor executor) {
+        Validate.notEmpty(name, "Executor name must not be empty");
+        executors.put(name, executor);
+    }
 
     public void registerListener(Listener l) {
-        Class<?> c = l.getClass();
-        for (Method m : c.getMethods()) {
+        register(l, null);
+    }
+
+    public void registerWeakListener(Listener l) {
+        register(l, new WeakReference<>(l, collected));
+    }
+
+    private void register(Listener l, WeakReference<Listener> reference) {
+        List<RegisteredListener> registered = new ArrayList<>();
+        for (Method m : l.getClass().getMethods()) {
             if (m.getAnnotation(EventHandler.class) != null && m.getParameterTypes().length == 1 && Event.class.isAssignableFrom(m.getParameterTypes()[0])) {
-                RegisteredListener reglistener = new RegisteredListener(l, m);
-                Class<?> eventType = m.getParameterTypes()[0];
-                List<RegisteredListener> methods = listeners.get(eventType);
-                if (methods == null) {
-                    methods = new ArrayList<>();
-                    listeners.put(eventType, methods);
-                }
-                methods.add(reglistener);
+                EventHandler handler = m.getAnnotation(EventHandler.class);
+                Executor executor = handler.async() ? new LimitedExecutor(getExecutor(handler.executor()), handler.concurrency()) : null;
+                registered.add(new RegisteredListener(reference == null ? l : null, reference, m, executor));
+            }
+        }
+        synchronized (this) {
+            for (RegisteredListener reglistener : registered) {
+                Class<?> eventType = reglistener.getMethod().getParameterTypes()[0];
+                RegisteredListener[] methods = listeners.getOrDefault(eventType, NO_LISTENERS);
+                methods = Arrays.copyOf(methods, methods.length + 1);
+                methods[methods.length - 1] = reglistener;
+                listeners.put(eventType, methods);
+            }
+            this.baked = new ConcurrentHashMap<>();
+        }
+    }
+
+    public void unregisterListener(Listener l) {
+        removeIf(reglistener -> reglistener.getListener() == l);
+    }
+
+    private synchronized void removeIf(Predicate<RegisteredListener> filter) {
+        boolean changed = false;
+        for (Iterator<Map.Entry<Class<?>, RegisteredListener[]>> it = listeners.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Class<?>, RegisteredListener[]> entry = it.next();
+            RegisteredListener[] methods = Arrays.stream(entry.getValue()).filter(filter.negate()).toArray(RegisteredListener[]::new);
+            if (methods.length == entry.getValue().length) {
+                continue;
+            }
+            changed = true;
+            if (methods.length == 0) {
+                it.remove();
+            } else {
+                entry.setValue(methods);
+            }
+        }
+        if (changed) {
+            this.baked = new ConcurrentHashMap<>();
+        }
+    }
+
+    public void callEvent(Event e) {
+        callEvent(e, null);
+    }
+
+    /**
+     * Call an event which was caused by a message of the given type, so handlers filtered by message type can see it
+     */
+    public void callEvent(Event e, String messageType) {
+        expungeCollected();
+        DispatchTable table = getTable(e.getClass());
+        RegisteredListener[] methods = table.listeners;
+        int[] unfiltered = table.unfiltered;
+        if (unfiltered.length == methods.length) {
+            for (RegisteredListener method : methods) {
+                dispatch(method, e);
+            }
+            return;
+        }
+        String chat = getChat(e);
+        String sender = getSender(e);
+        int[] byChat = table.byChat.getOrDefault(chat, NO_INDICES);
+        int[] bySender = table.bySender.getOrDefault(sender, NO_INDICES);
+        int[] byMessageType = table.byMessageType.getOrDefault(messageType, NO_INDICES);
+        // Each listener is indexed under one filter only, so merging the candidates by index keeps priority order
+        int a = 0, b = 0, c = 0, d = 0;
+        while (true) {
+            int next = Integer.MAX_VALUE;
+            if (a < unfiltered.length) {
+                next = unfiltered[a];
+            }
+            if (b < byChat.length) {
+                next = Math.min(next, byChat[b]);
+            }
+            if (c < bySender.length) {
+                next = Math.min(next, bySender[c]);
+            }
+            if (d < byMessageType.length) {
+                next = Math.min(next, byMessageType[d]);
+            }
+            if (next == Integer.MAX_VALUE) {
+                break;
+            }
+            if (a < unfiltered.length && unfiltered[a] == next) {
+                a++;
+            } else if (b < byChat.length && byChat[b] == next) {
+                b++;
+            } else if (c < bySender.length && bySender[c] == next) {
+                c++;
+            } else {
+                d++;
+            }
+            RegisteredListener method = methods[next];
+            if (method.matches(chat, sender, messageType)) {
+                dispatch(method, e);
+            }
+        }
+    }
+
+    /**
+     * Check whether any handler would receive an event of the given class, so callers can skip building it
+     */
+    public boolean hasListeners(Class<?> eventType) {
+        expungeCollected();
+        return getTable(eventType).listeners.length > 0;
+    }
+
+    /**
+     * Check whether any handler would receive an event of the given class caused by a message of the given type
+     */
+    public boolean hasListeners(Class<?> eventType, String messageType) {
+        expungeCollected();
+        DispatchTable table = getTable(eventType);
+        return table.anyMessageType || table.messageTypes.contains(messageType);
+    }
+
+    private void expungeCollected() {
+        if (collected.poll() != null) {
+            while (collected.poll() != null) {
+            }
+            removeIf(reglistener -> reglistener.getListener() == null);
+        }
+    }
+
+    private void dispatch(RegisteredListener method, Event e) {
+        if (method.getExecutor() == null) {
+            handleEvent(method, e);
+        } else {
+            try {
+                method.getExecutor().execute(() -> handleEvent(method, e));
+            } catch (Throwable t) {
+                instance.handleError(ErrorSource.DISPATCHING_EVENT, t, false);
             }
         }
     }
 
-    public void callEvent(Event e) { //todo bake
+    private void handleEvent(RegisteredListener method, Event e) {
+        try {
+            method.handleEvent(e);
+        } catch (Throwable t) {
+            instance.getLogger().log(Level.SEVERE, "Error while handling event", t);
+            instance.handleError(ErrorSource.DISPATCHING_EVENT, t, false);
+        }
+    }
+
+    private Executor getExecutor(String name) {
+        if (name.isEmpty()) {
+            return task -> ((SkypeImpl) instance).getHandlerExecutor().execute(task);
+        }
+        Executor executor = executors.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException(String.format("No executor registered with name '%s'", name));
+        }
+        return executor;
+    }
+
+    private DispatchTable getTable(Class<?> eventType) {
+        Map<Class<?>, DispatchTable> baked = this.baked;
+        DispatchTable table = baked.get(eventType);
+        if (table == null) {
+            table = bake(eventType);
+            baked.putIfAbsent(eventType, table);
+        }
+        return table;
+    }
+
+    private synchronized DispatchTable bake(Class<?> eventType) {
         List<RegisteredListener> methods = new ArrayList<>();
-        Class<?> eventType = e.getClass();
         while (true) {
-            List<RegisteredListener> m = listeners.get(eventType);
+            RegisteredListener[] m = listeners.get(eventType);
             if (m != null) {
-                methods.addAll(m);
+                Collections.addAll(methods, m);
             }
             if (eventType == Event.class) {
                 break;
             }
             eventType = eventType.getSuperclass();
         }
-        for (RegisteredListener method : methods) {
-            try {
-                method.handleEvent(e);
-            } catch (Throwable t) {
-                instance.getLogger().log(Level.SEVERE, "Error while handling event", t);
-                instance.handleError(ErrorSource.DISPATCHING_EVENT, t, false);
+        methods.sort(Comparator.comparing(RegisteredListener::getPriority));
+        return new DispatchTable(methods.toArray(new RegisteredListener[methods.size()]));
+    }
+
+    private static String getChat(Event e) {
+        if (e instanceof ChatEvent) {
+            Chat chat = ((ChatEvent) e).getChat();
+            return chat == null ? null : chat.getIdentity();
+        }
+        return null;
+    }
+
+    private static String getSender(Event e) {
+        if (e instanceof SenderEvent) {
+            Participant sender = ((SenderEvent) e).getSender();
+            return sender == null ? null : sender.getId();
+        }
+        return null;
+    }
+
+    private static class DispatchTable {
+        private final RegisteredListener[] listeners;
+        private final int[] unfiltered;
+        private final Map<String, int[]> byChat;
+        private final Map<String, int[]> bySender;
+        private final Map<String, int[]> byMessageType;
+        private final Set<String> messageTypes = new HashSet<>();
+        private boolean anyMessageType;
+
+        private DispatchTable(RegisteredListener[] listeners) {
+            List<Integer> unfiltered = new ArrayList<>();
+            Map<String, List<Integer>> byChat = new HashMap<>();
+            Map<String, List<Integer>> bySender = new HashMap<>();
+            Map<String, List<Integer>> byMessageType = new HashMap<>();
+            for (int i = 0; i < listeners.length; i++) {
+                RegisteredListener listener = listeners[i];
+                if (listener.getMessageTypes() == null) {
+                    anyMessageType = true;
+                } else {
+                    messageTypes.addAll(listener.getMessageTypes());
+                }
+                if (listener.getChats() != null) {
+                    index(byChat, listener.getChats(), i);
+                } else if (listener.getSenders() != null) {
+                    index(bySender, listener.getSenders(), i);
+                } else if (listener.getMessageTypes() != null) {
+                    index(byMessageType, listener.getMessageTypes(), i);
+                } else {
+                    unfiltered.add(i);
+                }
+            }
+            this.listeners = listeners;
+            this.unfiltered = toArray(unfiltered);
+            this.byChat = toArrays(byChat);
+            this.bySender = toArrays(bySender);
+            this.byMessageType = toArrays(byMessageType);
+        }
+
+        private static void index(Map<String, List<Integer>> index, Set<String> keys, int listener) {
+            for (String key : keys) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(listener);
             }
         }
+
+        private static Map<String, int[]> toArrays(Map<String, List<Integer>> index) {
+            Map<String, int[]> result = new HashMap<>();
+            index.forEach((key, value) -> result.put(key, toArray(value)));
+            return result;
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            return list.stream().mapToInt(Integer::intValue).toArray();
+        }
     }
 }
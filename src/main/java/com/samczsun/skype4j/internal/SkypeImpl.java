@@ -23,20 +23,29 @@ import com.samczsun.skype4j.Skype;
 import com.samczsun.skype4j.Visibility;
 import com.samczsun.skype4j.chat.Chat;
 import com.samczsun.skype4j.chat.GroupChat;
-import com.samczsun.skype4j.events.EventDispatcher;
 import com.samczsun.skype4j.exceptions.*;
 import com.samczsun.skype4j.exceptions.handler.ErrorHandler;
 import com.samczsun.skype4j.exceptions.handler.ErrorSource;
 import com.samczsun.skype4j.internal.chat.ChatImpl;
 import com.samczsun.skype4j.internal.participants.info.BotInfoImpl;
 import com.samczsun.skype4j.internal.participants.info.ContactImpl;
-import com.samczsun.skype4j.internal.threads.ActiveThread;
+import com.samczsun.skype4j.internal.metrics.MetricsRegistry;
+import com.samczsun.skype4j.internal.pipeline.EventPipeline;
+import com.samczsun.skype4j.internal.threads.ActiveTask;
 import com.samczsun.skype4j.internal.threads.AuthenticationChecker;
 import com.samczsun.skype4j.internal.threads.PollThread;
-import com.samczsun.skype4j.internal.threads.ServerPingThread;
+import com.samczsun.skype4j.internal.threads.ServerPingTask;
 import com.samczsun.skype4j.internal.utils.Encoder;
+import com.samczsun.skype4j.internal.utils.UncheckedConsumer;
 import com.samczsun.skype4j.participants.info.BotInfo;
 import com.samczsun.skype4j.participants.info.Contact;
+import com.samczsun.skype4j.transport.EndpointFamily;
+import com.samczsun.skype4j.transport.KeepAliveTransport;
+import com.samczsun.skype4j.transport.OverflowPolicy;
+import com.samczsun.skype4j.transport.PollEngine;
+import com.samczsun.skype4j.transport.RateLimit;
+import com.samczsun.skype4j.transport.RetryPolicy;
+import com.samczsun.skype4j.transport.Transport;
 import org.jsoup.helper.Validate;
 
 import java.io.*;
@@ -48,9 +57,16 @@ import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.*;
 import java.util.logging.Formatter;
 import java.util.regex.Matcher;
@@ -60,6 +76,8 @@ public abstract class SkypeImpl implements Skype {
     public static final String LINE_SEPARATOR = System.getProperty("line.separator");
     public static final Pattern PAGE_SIZE_PATTERN = Pattern.compile("pageSize=([0-9]+)");
     public static final String VERSION = "0.2.0-SNAPSHOT";
+    public static final int ASYNC_THREADS = 16;
+    public static final int HANDLER_THREADS = 16;
 
     protected final AtomicBoolean loggedIn = new AtomicBoolean(false);
     protected final AtomicBoolean shutdownRequested = new AtomicBoolean(false);
@@ -70,23 +88,44 @@ public abstract class SkypeImpl implements Skype {
     protected final List<ErrorHandler> errorHandlers;
     private final String username;
     protected ExecutorService scheduler;
+    protected StripedExecutor eventExecutor;
+    protected EventQueue eventQueue;
+    protected final EventPipeline eventPipeline;
+    protected final DeduplicationWindow deduplicationWindow = new DeduplicationWindow(DeduplicationWindow.DEFAULT_WINDOW,
+            TimeUnit.MILLISECONDS, DeduplicationWindow.DEFAULT_CAPACITY);
     protected ExecutorService shutdownThread;
-    protected EventDispatcher eventDispatcher = new SkypeEventDispatcher(this);
+    protected ExecutorService asyncExecutor;
+    protected ExecutorService handlerExecutor;
+    protected final SkypeEventDispatcher eventDispatcher = new SkypeEventDispatcher(this);
     protected Map<String, String> cookies = new HashMap<>();
-    protected ServerPingThread serverPingThread;
-    protected ActiveThread activeThread;
-    protected AuthenticationChecker reauthThread;
+    protected ServerPingTask serverPingTask;
+    protected volatile ActiveTask activeTask;
+    protected AuthenticationChecker reauthTask;
     protected PollThread pollThread;
+    protected PollEngine pollEngine;
+    protected boolean virtualThreads;
+    protected Closeable pollSubscription;
     protected SkypeWebSocket wss;
     protected String conversationBackwardLink;
     protected String conversationSyncState;
     protected Logger logger = Logger.getLogger(Skype.class.getCanonicalName());
-    private String skypeToken;
-    private long skypeTokenExpiryTime;
-    private String registrationToken;
-    private long registrationTokenExpiryTime;
-    private String cloud = "";
-    private String endpointId;
+    protected Transport transport = new KeepAliveTransport();
+    protected RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    protected volatile String endpointBase;
+    protected int circuitBreakerThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+    protected long circuitBreakerOpenTime = CircuitBreaker.DEFAULT_OPEN_TIME;
+    private final Map<Endpoints, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<EndpointFamily, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final MetricsRegistry metrics;
+    private volatile String skypeToken;
+    private volatile long skypeTokenExpiryTime;
+    private volatile String registrationToken;
+    private volatile long registrationTokenExpiryTime;
+    private volatile String cloud = "";
+    private volatile Map<Endpoints, String> cloudPrefixes = new ConcurrentHashMap<>();
+    private volatile String endpointId;
+    // Guards replacing the active task, which only happens when the endpoint changes
+    private final Lock endpointLock = new ReentrantLock();
     private JsonObject trouterData;
     private int socketId = 1;
 
@@ -125,6 +164,11 @@ public abstract class SkypeImpl implements Skype {
             this.logger.setUseParentHandlers(false);
             this.logger.addHandler(handler);
         }
+        this.metrics = new MetricsRegistry(this.logger);
+        setEventQueue(Integer.MAX_VALUE, OverflowPolicy.BLOCK);
+        this.eventPipeline = new EventPipeline(this);
+        this.metrics.setStages(this.eventPipeline.getStages());
+        this.metrics.setDeduplicationWindow(this.deduplicationWindow);
     }
 
     @Override
@@ -134,35 +178,38 @@ public abstract class SkypeImpl implements Skype {
                 .get();
 
         this.loggedIn.set(true);
-        if (this.serverPingThread != null) {
-            this.serverPingThread.kill();
-            this.serverPingThread = null;
+        this.metrics.registerMBeans(getUsername());
+        if (this.serverPingTask != null) {
+            this.serverPingTask.kill();
+            this.serverPingTask = null;
         }
-        if (this.reauthThread != null) {
-            this.reauthThread.kill();
-            this.reauthThread = null;
+        if (this.reauthTask != null) {
+            this.reauthTask.kill();
+            this.reauthTask = null;
         }
         if (scheduler != null) {
             scheduler.shutdownNow();
-            while (!scheduler.isTerminated()) ;
+            Utils.awaitTermination(scheduler);
         }
         shutdownThread = Executors.newSingleThreadExecutor(new SkypeThreadFactory(this, "Shutdown"));
-        scheduler = Executors.newFixedThreadPool(4, new SkypeThreadFactory(this, "Poller"));
-        (serverPingThread = new ServerPingThread(this)).start();
-        (reauthThread = new AuthenticationChecker(this)).start();
+        scheduler = SkypeThreadFactory.newPool(this, "Poller", Math.max(4, Runtime.getRuntime().availableProcessors()));
+        eventExecutor = new StripedExecutor(scheduler);
+        eventQueue.reset();
+        eventPipeline.start();
+        (serverPingTask = new ServerPingTask(this)).start();
+        (reauthTask = new AuthenticationChecker(this)).start();
     }
 
     public List<Chat> loadMoreChats(int amount) throws ConnectionException {
         try {
-            JsonObject data;
+            InputStream input;
             if (this.conversationBackwardLink == null) {
                 if (this.conversationSyncState == null) {
-                    InputStream input = Endpoints.LOAD_CHATS
+                    input = Endpoints.LOAD_CHATS
                             .open(this, System.currentTimeMillis(), amount)
                             .as(InputStream.class)
                             .expect(200, "While loading chats")
                             .get();
-                    data = Utils.parseJsonObject(input);
                 } else {
                     return Collections.emptyList();
                 }
@@ -170,9 +217,9 @@ public abstract class SkypeImpl implements Skype {
                 Matcher matcher = PAGE_SIZE_PATTERN.matcher(this.conversationBackwardLink);
                 matcher.find();
                 String url = matcher.replaceAll("pageSize=" + amount);
-                data = Endpoints
+                input = Endpoints
                         .custom(url, this)
-                        .as(JsonObject.class)
+                        .as(InputStream.class)
                         .expect(200, "While loading chats")
                         .header("RegistrationToken", this.getRegistrationToken())
                         .get();
@@ -180,7 +227,7 @@ public abstract class SkypeImpl implements Skype {
 
             List<Chat> chats = new ArrayList<>();
 
-            for (JsonValue value : data.get("conversations").asArray()) {
+            JsonObject data = Utils.parseJsonObject(input, "conversations", (UncheckedConsumer<JsonValue>) value -> {
                 try {
                     chats.add(this.getOrLoadChat(value.asObject().get("id").asString()));
                 } catch (ChatNotFoundException e) {
@@ -188,7 +235,7 @@ public abstract class SkypeImpl implements Skype {
                 } catch (IllegalArgumentException e) {
                     handleError(null, new RuntimeException(value.toString(), e), false);
                 }
-            }
+            });
 
             JsonObject metadata = data.get("_metadata").asObject();
             if (metadata.get("backwardLink") != null) {
@@ -237,30 +284,42 @@ public abstract class SkypeImpl implements Skype {
             shutdownRequested.set(true);
             this.shutdownThread.submit(() -> {
                 shutdownThread.shutdown();
-                reauthThread.kill();
+                reauthTask.kill();
                 scheduler.shutdownNow();
-                while (!scheduler.isTerminated()) ;
+                Utils.awaitTermination(scheduler);
                 doShutdown();
+                synchronized (this) {
+                    if (asyncExecutor != null) {
+                        asyncExecutor.shutdown();
+                    }
+                    if (handlerExecutor != null) {
+                        handlerExecutor.shutdown();
+                    }
+                }
+                metrics.unregisterMBeans();
             });
         }
     }
 
     public void doShutdown() {
-        if (this.pollThread != null) {
-            this.pollThread.shutdown();
-            this.pollThread = null;
-        }
-        if (this.serverPingThread != null) {
-            this.serverPingThread.kill();
-            this.serverPingThread = null;
+        stopPolling();
+        eventPipeline.stop();
+        if (this.serverPingTask != null) {
+            this.serverPingTask.kill();
+            this.serverPingTask = null;
         }
-        if (this.activeThread != null) {
-            this.activeThread.kill();
-            this.activeThread = null;
+        endpointLock.lock();
+        try {
+            if (this.activeTask != null) {
+                this.activeTask.kill();
+                this.activeTask = null;
+            }
+        } finally {
+            endpointLock.unlock();
         }
-        if (this.reauthThread != null) {
-            this.reauthThread.kill();
-            this.reauthThread = null;
+        if (this.reauthTask != null) {
+            this.reauthTask.kill();
+            this.reauthTask = null;
         }
         if (this.wss != null) {
             this.wss.close();
@@ -274,6 +333,7 @@ public abstract class SkypeImpl implements Skype {
         Matcher m = grabber.matcher(anyLocation);
         if (m.find()) {
             this.cloud = m.group(1);
+            this.cloudPrefixes = new ConcurrentHashMap<>();
         }
     }
 
@@ -356,17 +416,28 @@ public abstract class SkypeImpl implements Skype {
         Endpoints.ENDPOINTS_URL
                 .open(this)
                 .noRedirects()
-                .on(301, (connection) -> Endpoints
-                        .custom(Endpoints.ENDPOINTS_URL.url() + "/" + Encoder.encode(endpointId), SkypeImpl.this)
-                        .expect(200, "While registering endpoint")
-                        .header("Authentication", "skypetoken=" + skypeToken)
-                        .header("LockAndKey", Utils.generateChallengeHeader())
-                        .put(new JsonObject().add("endpointFeatures", "Agent")))
+                .on(301, (connection) -> updateEndpoint("While registering endpoint"))
                 .expect(201, "While registering endpoint")
                 .header("Authentication", "skypetoken=" + skypeToken)
                 .post(new JsonObject().add("endpointFeatures", "Agent"));
     }
 
+    /**
+     * Renew the registration token of the current endpoint, keeping its subscriptions
+     */
+    public void refreshRegistrationToken() throws ConnectionException {
+        updateEndpoint("While refreshing registration token");
+    }
+
+    private HttpURLConnection updateEndpoint(String cause) throws ConnectionException {
+        return Endpoints
+                .custom(Endpoints.ENDPOINTS_URL.url() + "/" + Encoder.encode(endpointId), this)
+                .expect(200, cause)
+                .header("Authentication", "skypetoken=" + skypeToken)
+                .header("LockAndKey", Utils.generateChallengeHeader())
+                .put(new JsonObject().add("endpointFeatures", "Agent"));
+    }
+
     public abstract void getContactRequests(boolean fromWebsocket) throws ConnectionException;
 
     public abstract void updateContactList() throws ConnectionException;
@@ -469,6 +540,7 @@ public abstract class SkypeImpl implements Skype {
                 if (connection.getHeaderField("Set-RegistrationToken") != null) {
                     setRegistrationToken(connection.getHeaderField("Set-RegistrationToken"));
                 }
+                getTransport().recycle(connection);
                 Endpoints
                         .custom("https://" + this.getCloud() + "client-s.gateway.messenger.live.com/v1/users/ME/endpoints/" + Encoder
                                 .encode(endpointId), this)
@@ -480,15 +552,17 @@ public abstract class SkypeImpl implements Skype {
             if (connection.getResponseCode() != 201) {
                 throw ExceptionHandler.generateException("While subscribing", connection);
             }
+            getTransport().recycle(connection);
             Endpoints.MESSAGINGSERVICE_URL
                     .open(this, Encoder.encode(endpointId))
                     .expect(200, "While submitting messagingservice")
                     .put(buildRegistrationObject());
-            if (this.pollThread != null) {
-                this.pollThread.shutdown();
-                this.pollThread = null;
+            stopPolling();
+            if (this.pollEngine != null) {
+                pollSubscription = pollEngine.subscribe(this, Encoder.encode(endpointId));
+            } else {
+                (pollThread = new PollThread(this, Encoder.encode(endpointId))).start();
             }
-            (pollThread = new PollThread(this, Encoder.encode(endpointId))).start();
             subscribed.set(true);
         } catch (IOException io) {
             throw ExceptionHandler.generateException("While subscribing", io);
@@ -500,7 +574,13 @@ public abstract class SkypeImpl implements Skype {
     }
 
     public void reauthenticate() throws ConnectionException, InvalidCredentialsException, NotParticipatingException {
-        //todo: keep subscribed until reauth is finished so events aren't lost
+        if (isLoggedIn()) {
+            String skypeToken = requestSkypeToken();
+            if (skypeToken != null) {
+                setSkypeToken(skypeToken);
+                return;
+            }
+        }
         doShutdown();
         login();
         if (subscribed.get()) {
@@ -508,6 +588,13 @@ public abstract class SkypeImpl implements Skype {
         }
     }
 
+    /**
+     * Request a fresh skype token for the current session, or null if a full login is needed instead
+     */
+    protected String requestSkypeToken() throws ConnectionException, InvalidCredentialsException {
+        return null;
+    }
+
     public String getRegistrationToken() {
         return this.registrationToken;
     }
@@ -517,12 +604,25 @@ public abstract class SkypeImpl implements Skype {
         this.registrationToken = splits[0];
         this.registrationTokenExpiryTime = Long.parseLong(splits[1].substring("expires=".length() + 1)) * 1000;
         if (splits.length > 2) {
-            this.endpointId = splits[2].split("=")[1];
-            if (this.activeThread != null) {
-                this.activeThread.kill();
-                this.activeThread = null;
+            String endpointId = splits[2].split("=")[1];
+            ActiveTask task = this.activeTask;
+            if (endpointId.equals(this.endpointId) && task != null && task.isAlive()) {
+                return;
+            }
+            endpointLock.lock();
+            try {
+                if (endpointId.equals(this.endpointId) && this.activeTask != null && this.activeTask.isAlive()) {
+                    return;
+                }
+                this.endpointId = endpointId;
+                if (this.activeTask != null) {
+                    this.activeTask.kill();
+                    this.activeTask = null;
+                }
+                (activeTask = new ActiveTask(this, Encoder.encode(endpointId))).start();
+            } finally {
+                endpointLock.unlock();
             }
-            (activeThread = new ActiveThread(this, Encoder.encode(endpointId))).start();
         }
     }
 
@@ -542,11 +642,21 @@ public abstract class SkypeImpl implements Skype {
         return this.cloud;
     }
 
+    public String getCloudPrefix(Endpoints endpoint) {
+        Map<Endpoints, String> prefixes = this.cloudPrefixes;
+        String prefix = prefixes.get(endpoint);
+        if (prefix == null) {
+            prefix = endpoint.template().prefix(this.cloud);
+            prefixes.put(endpoint, prefix);
+        }
+        return prefix;
+    }
+
     public Map<String, String> getCookies() {
         return this.cookies;
     }
 
-    public EventDispatcher getEventDispatcher() {
+    public SkypeEventDispatcher getEventDispatcher() {
         return this.eventDispatcher;
     }
 
@@ -558,6 +668,103 @@ public abstract class SkypeImpl implements Skype {
         return this.logger;
     }
 
+    public Transport getTransport() {
+        return this.transport;
+    }
+
+    public void setTransport(Transport transport) {
+        Validate.notNull(transport, "Transport must not be null");
+        this.transport = transport;
+    }
+
+    @Override
+    public MetricsRegistry getMetrics() {
+        return this.metrics;
+    }
+
+    private void stopPolling() {
+        if (this.pollThread != null) {
+            this.pollThread.shutdown();
+            this.pollThread = null;
+        }
+        if (this.pollSubscription != null) {
+            try {
+                this.pollSubscription.close();
+            } catch (IOException ignored) {
+            }
+            this.pollSubscription = null;
+        }
+    }
+
+    public boolean isVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public PollEngine getPollEngine() {
+        return this.pollEngine;
+    }
+
+    public void setPollEngine(PollEngine pollEngine) {
+        this.pollEngine = pollEngine;
+    }
+
+    public String getEndpointBase() {
+        return this.endpointBase;
+    }
+
+    public void setEndpointBase(String endpointBase) {
+        if (endpointBase != null && endpointBase.endsWith("/")) {
+            endpointBase = endpointBase.substring(0, endpointBase.length() - 1);
+        }
+        this.endpointBase = endpointBase;
+    }
+
+    public String resolveUrl(String url) {
+        String base = this.endpointBase;
+        if (base == null || url.startsWith(base)) {
+            return url;
+        }
+        int scheme = url.indexOf("://");
+        return base + "/" + (scheme < 0 ? url : url.substring(scheme + 3));
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        Validate.notNull(retryPolicy, "Retry policy must not be null");
+        this.retryPolicy = retryPolicy;
+    }
+
+    public void setCircuitBreaker(int failureThreshold, long openTime) {
+        if (failureThreshold < 1 || openTime < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.circuitBreakerThreshold = failureThreshold;
+        this.circuitBreakerOpenTime = openTime;
+        this.circuitBreakers.clear();
+    }
+
+    public CircuitBreaker getCircuitBreaker(Endpoints endpoint) {
+        return circuitBreakers.computeIfAbsent(endpoint, e -> new CircuitBreaker(circuitBreakerThreshold, circuitBreakerOpenTime));
+    }
+
+    public void setRateLimit(EndpointFamily family, RateLimit limit) {
+        Validate.notNull(family, "Family must not be null");
+        Validate.notNull(limit, "Rate limit must not be null");
+        this.rateLimiters.put(family, new RateLimiter(limit));
+    }
+
+    public RateLimiter getRateLimiter(EndpointFamily family) {
+        RateLimiter limiter = rateLimiters.get(family);
+        return limiter == null || limiter.isUnlimited() ? null : limiter;
+    }
+
     public boolean isLoggedIn() {
         return loggedIn.get();
     }
@@ -566,6 +773,72 @@ public abstract class SkypeImpl implements Skype {
         return this.scheduler;
     }
 
+    /**
+     * Events are handled here, keyed by conversation, so each chat sees its events in order
+     */
+    public StripedExecutor getEventExecutor() {
+        return this.eventExecutor;
+    }
+
+    public EventPipeline getEventPipeline() {
+        return this.eventPipeline;
+    }
+
+    /**
+     * Messages are only handled the first time their id is seen here, whether they arrive live or are loaded
+     */
+    public DeduplicationWindow getDeduplicationWindow() {
+        return this.deduplicationWindow;
+    }
+
+    public EventQueue getEventQueue() {
+        return this.eventQueue;
+    }
+
+    public void setEventQueue(int capacity, OverflowPolicy policy) {
+        Validate.notNull(policy, "Policy must not be null");
+        this.eventQueue = new EventQueue(this, capacity, policy);
+        this.metrics.setEventQueue(this.eventQueue);
+    }
+
+    /**
+     * Requests made through the async endpoint operations share this pool, so any number of outstanding
+     * requests queue up here instead of each holding a thread of their own
+     */
+    public synchronized ExecutorService getAsyncExecutor() {
+        if (this.asyncExecutor != null && this.asyncExecutor.isShutdown()) {
+            throw new RejectedExecutionException("API is shut down");
+        }
+        if (this.asyncExecutor == null) {
+            this.asyncExecutor = newElasticPool("Async", ASYNC_THREADS);
+        }
+        return this.asyncExecutor;
+    }
+
+    /**
+     * Asynchronous event handlers run on this pool unless they name another executor. It is kept apart from the async
+     * executor, so handlers waiting on requests can never hold every thread those requests need
+     */
+    public synchronized ExecutorService getHandlerExecutor() {
+        if (this.handlerExecutor != null && this.handlerExecutor.isShutdown()) {
+            throw new RejectedExecutionException("API is shut down");
+        }
+        if (this.handlerExecutor == null) {
+            this.handlerExecutor = newElasticPool("Handler", HANDLER_THREADS);
+        }
+        return this.handlerExecutor;
+    }
+
+    private ExecutorService newElasticPool(String name, int threads) {
+        if (this.virtualThreads) {
+            return VirtualThreads.newThreadPerTaskExecutor(new SkypeThreadFactory(this, name));
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new SkypeThreadFactory(this, name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public String getUsername() {
         return this.username;
     }
@@ -618,6 +891,10 @@ public abstract class SkypeImpl implements Skype {
         return skypeTokenExpiryTime;
     }
 
+    public long getRegistrationTokenExpirationTime() {
+        return registrationTokenExpiryTime;
+    }
+
     public SkypeWebSocket getWebSocket() {
         return wss;
     }
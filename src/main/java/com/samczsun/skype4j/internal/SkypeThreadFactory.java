@@ -16,19 +16,56 @@
 
 package com.samczsun.skype4j.internal;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class SkypeThreadFactory implements ThreadFactory {
+    private static final long DAEMON_KEEP_ALIVE = 60;
+
     private final AtomicInteger id = new AtomicInteger(0);
+    private final SkypeImpl skype;
     private final String prefix;
 
     public SkypeThreadFactory(SkypeImpl skype, String name) {
+        this.skype = skype;
         prefix = name + "-" + skype.getUsername();
     }
 
     @Override
     public Thread newThread(Runnable r) {
-        return new Thread(r, "Skype4J-" + prefix + "-" + id.getAndIncrement());
+        return newThread(skype, "Skype4J-" + prefix + "-" + id.getAndIncrement(), r);
+    }
+
+    public static Thread newThread(SkypeImpl skype, String name, Runnable r) {
+        return skype.isVirtualThreads() ? VirtualThreads.newThread(name, r) : new Thread(r, name);
+    }
+
+    /**
+     * Create a pool of the given size, or an executor which starts a virtual thread per task if the client uses them
+     */
+    public static ExecutorService newPool(SkypeImpl skype, String name, int threads) {
+        SkypeThreadFactory factory = new SkypeThreadFactory(skype, name);
+        return skype.isVirtualThreads() ? VirtualThreads.newThreadPerTaskExecutor(factory) : Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Create a pool of at most the given number of daemon threads, not tied to any client, whose threads time out
+     * when idle
+     */
+    public static ThreadPoolExecutor newDaemonPool(String name, int threads) {
+        AtomicInteger id = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, DAEMON_KEEP_ALIVE, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + id.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 }
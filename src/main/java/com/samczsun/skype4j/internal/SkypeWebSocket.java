@@ -41,13 +41,15 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public class SkypeWebSocket extends WebSocketClient {
     private final SkypeImpl skype;
     private final ExecutorService singleThreaded;
-    private Thread pingThread;
+    private final AtomicInteger currentPing = new AtomicInteger(1);
+    private volatile HashedWheelTimer.Timeout pingTask;
 
     public SkypeWebSocket(final SkypeImpl skype, URI uri) throws NoSuchAlgorithmException, KeyManagementException {
         super(uri, new Draft_17(), null, 2000);
@@ -85,20 +87,7 @@ public class SkypeWebSocket extends WebSocketClient {
 
     @Override
     public void onOpen(ServerHandshake serverHandshake) {
-        (pingThread = new Thread("Skype4J-Pinger-" + skype.getUsername()) {
-            AtomicInteger currentPing = new AtomicInteger(1);
-
-            public void run() {
-                while (true) {
-                    try {
-                        Thread.sleep(55 * 1000);
-                        send("5:" + currentPing.getAndIncrement() + "+::{\"name\":\"ping\"}");
-                    } catch (InterruptedException e) {
-                        break;
-                    }
-                }
-            }
-        }).start();
+        pingTask = HashedWheelTimer.shared().scheduleWithFixedDelay(() -> send("5:" + currentPing.getAndIncrement() + "+::{\"name\":\"ping\"}"), 55, 55, TimeUnit.SECONDS);
     }
 
     @Override
@@ -156,12 +145,10 @@ public class SkypeWebSocket extends WebSocketClient {
             } catch (InterruptedException e) {
                 skype.handleError(ErrorSource.CLOSING_WEBSOCKET, e, false);
             } finally {
-                if (this.pingThread.isAlive()) {
-                    this.pingThread.interrupt();
-                }
+                stopPinging();
                 if (!this.singleThreaded.isTerminated()) {
                     singleThreaded.shutdown();
-                    while (!singleThreaded.isTerminated()) ;
+                    Utils.awaitTermination(singleThreaded);
                 }
             }
         }
@@ -169,11 +156,9 @@ public class SkypeWebSocket extends WebSocketClient {
 
     @Override
     public void onClose(int i, String s, boolean b) {
-        if (pingThread != null) {
-            pingThread.interrupt();
-        }
+        stopPinging();
         singleThreaded.shutdown();
-        while (!singleThreaded.isTerminated()) ;
+        Utils.awaitTermination(singleThreaded);
         if (skype.getWebSocket() == this) {
             try {
                 skype.registerWebSocket();
@@ -188,6 +173,13 @@ public class SkypeWebSocket extends WebSocketClient {
         skype.getLogger().log(Level.SEVERE, "Exception in websocket client", e);
     }
 
+    private void stopPinging() {
+        HashedWheelTimer.Timeout pingTask = this.pingTask;
+        if (pingTask != null) {
+            pingTask.cancel();
+        }
+    }
+
     private static class TrustAllManager implements X509TrustManager {
 
         public java.security.cert.X509Certificate[] getAcceptedIssuers() {
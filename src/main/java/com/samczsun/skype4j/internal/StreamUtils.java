@@ -17,8 +17,55 @@
 package com.samczsun.skype4j.internal;
 
 import java.io.*;
+import java.net.HttpURLConnection;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public class StreamUtils {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    public static InputStream getInputStream(HttpURLConnection connection) throws IOException {
+        return decode(connection, connection.getInputStream());
+    }
+
+    public static InputStream getErrorStream(HttpURLConnection connection) throws IOException {
+        InputStream in = connection.getErrorStream();
+        return in == null ? null : decode(connection, in);
+    }
+
+    public static InputStream decode(HttpURLConnection connection, InputStream in) throws IOException {
+        return decode(connection.getContentEncoding(), in);
+    }
+
+    public static InputStream decode(String encoding, InputStream in) throws IOException {
+        if (encoding == null) {
+            return in;
+        }
+        encoding = encoding.trim().toLowerCase();
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            return in;
+        }
+        PushbackInputStream pushback = new PushbackInputStream(in, 2);
+        byte[] header = new byte[2];
+        int read = 0;
+        while (read < 2) {
+            int n = pushback.read(header, read, 2 - read);
+            if (n < 0) break;
+            read += n;
+        }
+        if (read == 0) {
+            return pushback;
+        }
+        pushback.unread(header, 0, read);
+        if (encoding.equals("deflate")) {
+            // Some servers send a raw deflate stream without the zlib wrapper
+            boolean zlib = read == 2 && (header[0] & 0x0f) == 8 && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+            return new InflaterInputStream(pushback, new Inflater(!zlib), 8192);
+        }
+        return new GZIPInputStream(pushback, 8192);
+    }
+
     public static String readFully(InputStream in) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         byte[] chunk = new byte[2048];
@@ -27,6 +74,12 @@ public class StreamUtils {
         return out.toString("UTF-8");
     }
 
+    public static byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        copy(in, out);
+        return out.toByteArray();
+    }
+
     public static ByteArrayInputStream copy(InputStream in) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         copy(in, out);
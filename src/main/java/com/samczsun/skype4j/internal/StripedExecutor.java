@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs tasks submitted with the same key one at a time in submission order, while tasks with different keys run in
+ * parallel on the backing executor. A key only occupies a thread while it has tasks queued
+ */
+public class StripedExecutor {
+    private static final Logger LOGGER = Logger.getLogger(StripedExecutor.class.getName());
+    // Tasks run per turn before a busy key gives its thread back to the others
+    private static final int BATCH_SIZE = 16;
+
+    private final Executor executor;
+    private final Map<Object, Stripe> stripes = new ConcurrentHashMap<>();
+
+    public StripedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void execute(Object key, Runnable task) {
+        boolean[] created = new boolean[1];
+        Stripe stripe = stripes.compute(key, (k, existing) -> {
+            Stripe result = existing;
+            if (result == null) {
+                result = new Stripe(k);
+                created[0] = true;
+            }
+            result.tasks.add(task);
+            return result;
+        });
+        if (created[0]) {
+            submit(stripe);
+        }
+    }
+
+    public int getActiveKeys() {
+        return stripes.size();
+    }
+
+    private void submit(Stripe stripe) {
+        try {
+            executor.execute(stripe);
+        } catch (RejectedExecutionException e) {
+            stripes.remove(stripe.key, stripe);
+            throw e;
+        }
+    }
+
+    private boolean release(Stripe stripe) {
+        return stripes.computeIfPresent(stripe.key, (k, existing) -> existing.tasks.isEmpty() ? null : existing) == null;
+    }
+
+    private class Stripe implements Runnable {
+        private final Object key;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private Stripe(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    if (release(this)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    LOGGER.log(Level.SEVERE, "Task for " + key + " failed", t);
+                }
+            }
+            try {
+                submit(this);
+            } catch (RejectedExecutionException ignored) {
+            }
+        }
+    }
+}
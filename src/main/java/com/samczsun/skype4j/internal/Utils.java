@@ -21,6 +21,7 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import com.samczsun.skype4j.exceptions.ConnectionException;
 import com.samczsun.skype4j.internal.chat.ChatImpl;
+import com.samczsun.skype4j.internal.utils.JsonStreamReader;
 
 import javax.xml.bind.DatatypeConverter;
 import java.io.IOException;
@@ -31,8 +32,16 @@ import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -46,6 +55,18 @@ public class Utils {
         return parseJsonValue(inputStream).asArray();
     }
 
+    /**
+     * Parse a JSON object, handing each element of the given array member to the consumer as soon as it is read
+     * instead of holding the whole array in memory
+     *
+     * @return The object without the streamed member
+     */
+    public static JsonObject parseJsonObject(InputStream inputStream, String arrayName, Consumer<JsonValue> consumer) throws IOException {
+        try (JsonStreamReader reader = new JsonStreamReader(inputStream)) {
+            return reader.readObject(arrayName, consumer);
+        }
+    }
+
     public static JsonValue parseJsonValue(InputStream inputStream) throws IOException {
         JsonValue jsonValue;
         try (InputStreamReader reader = new InputStreamReader(inputStream, "UTF-8")) {
@@ -128,6 +149,48 @@ public class Utils {
         return StreamSupport.stream(iterable.spliterator(), parallel);
     }
 
+    public static <T> T join(CompletableFuture<T> future) {
+        if (future instanceof AsyncRequest) {
+            ((AsyncRequest<T>) future).run();
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            sneakyThrow(e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Run the tasks on the executor and wait for all of them. Like {@link #join(CompletableFuture)}, tasks which no pool
+     * thread has picked up yet are run on the calling thread
+     */
+    public static void joinAll(Executor executor, List<? extends Runnable> tasks) {
+        List<AsyncRequest<Void>> requests = new ArrayList<>();
+        for (Runnable task : tasks) {
+            requests.add(AsyncRequest.submit(executor, () -> {
+                task.run();
+                return null;
+            }));
+        }
+        requests.forEach(AsyncRequest::run);
+        join(CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])));
+    }
+
+    public static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (!executor.isTerminated()) {
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     public static void sneakyThrow(Throwable ex) {
         Utils.<RuntimeException>sneakyThrowInner(ex);
     }
@@ -41,6 +41,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ChatGroup extends ChatImpl implements GroupChat {
@@ -110,30 +111,30 @@ public class ChatGroup extends ChatImpl implements GroupChat {
             }
         }
 
+        Map<String, UserImpl> requested = new HashMap<>(toLoad);
+        List<CompletableFuture<JsonArray>> batches = new ArrayList<>();
         while (!toLoad.isEmpty()) {
-            Map<String, UserImpl> localToLoad = new HashMap<>();
-            Iterator<Map.Entry<String, UserImpl>> it = toLoad.entrySet().iterator();
-            while (localToLoad.size() < 100 && !toLoad.isEmpty()) {
-                Map.Entry<String, UserImpl> ent = it.next();
-                localToLoad.put(ent.getKey(), ent.getValue());
+            JsonArray usernames = new JsonArray();
+            Iterator<String> it = toLoad.keySet().iterator();
+            for (int i = 0; i < 100 && it.hasNext(); i++) {
+                usernames.add(it.next());
                 it.remove();
             }
 
-            JsonArray usernames = new JsonArray();
-            localToLoad.keySet().forEach(usernames::add);
-
-            JsonArray info = Endpoints.PROFILE_INFO
+            batches.add(Endpoints.PROFILE_INFO
                     .open(getClient())
                     .expect(200, "While getting contact info")
                     .as(JsonArray.class)
-                    .post(new JsonObject()
+                    .postAsync(new JsonObject()
                             .add("usernames", usernames)
-                    );
+                    ));
+        }
 
-            for (JsonValue jsonValue : info) {
+        for (CompletableFuture<JsonArray> batch : batches) {
+            for (JsonValue jsonValue : Utils.join(batch)) {
                 JsonObject data = jsonValue.asObject();
 
-                UserImpl matching = localToLoad.get(data.get("username").asString());
+                UserImpl matching = requested.get(data.get("username").asString());
                 if (matching != null) {
                     matching.setInfo(ContactImpl.createContact(getClient(), matching.getUsername(), data));
                 }
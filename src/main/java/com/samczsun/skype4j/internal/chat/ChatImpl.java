@@ -30,7 +30,8 @@ import com.samczsun.skype4j.internal.*;
 import com.samczsun.skype4j.internal.chat.messages.ChatMessageImpl;
 import com.samczsun.skype4j.internal.participants.ParticipantImpl;
 import com.samczsun.skype4j.internal.participants.UserImpl;
-import com.samczsun.skype4j.internal.threads.TypingThread;
+import com.samczsun.skype4j.internal.threads.TypingTask;
+import com.samczsun.skype4j.internal.utils.UncheckedConsumer;
 import com.samczsun.skype4j.participants.Participant;
 import com.samczsun.skype4j.participants.info.Contact;
 import com.samczsun.skype4j.participants.User;
@@ -41,6 +42,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -60,7 +62,7 @@ public abstract class ChatImpl implements Chat {
     private String backwardLink;
     private String syncState;
 
-    private TypingThread typingThread;
+    private TypingTask typingTask;
 
     ChatImpl(SkypeImpl client, String identity) throws ConnectionException, ChatNotFoundException {
         this.client = client;
@@ -170,12 +172,12 @@ public abstract class ChatImpl implements Chat {
 
     @Override
     public List<ChatMessage> loadMoreMessages(int amount) throws ConnectionException {
-        JsonObject data;
+        InputStream input;
         if (backwardLink == null) {
             if (syncState == null) {
-                data = Endpoints.LOAD_MESSAGES
+                input = Endpoints.LOAD_MESSAGES
                         .open(getClient(), getIdentity(), amount)
-                        .as(JsonObject.class)
+                        .as(InputStream.class)
                         .expect(200, "While loading messages")
                         .get();
             } else {
@@ -186,39 +188,44 @@ public abstract class ChatImpl implements Chat {
             //Matcher find appears to be doing nothing.
             matcher.find();
             String url = matcher.replaceAll("pageSize=" + amount);
-            data =  Endpoints
+            input = Endpoints
                     .custom(url, getClient())
                     .header("RegistrationToken", getClient().getRegistrationToken())
-                    .as(JsonObject.class)
+                    .as(InputStream.class)
                     .expect(200, "While loading messages")
                     .get();
         }
         List<ChatMessage> messages = new ArrayList<>();
 
-        for (JsonValue value : data.get("messages").asArray()) {
-            try {
-                JsonObject msg = value.asObject();
-                if (msg.get("messagetype").asString().equals("RichText") || msg.get("messagetype").asString().equals("Text")) {
-                    UserImpl u = (UserImpl) MessageType.getUser(msg.get("from").asString(), this);
-                    Message message = Message.fromHtml(MessageType.stripMetadata(msg.get("content").asString()));
-                    if (msg.get("clientmessageid") != null) {
-                        ChatMessage m = Factory.createMessage(this, u, msg.get("id").asString(),
-                                msg.get("clientmessageid").asString(),
-                                formatter.parse(msg.get("originalarrivaltime").asString()).getTime(), message
-                                ,getClient());
-                        this.messages.add(0, m);
-                        u.insertMessage(m, 0);
-                        messages.add(m);
-                    } else {
-                        ChatMessageImpl chatMessage = (ChatMessageImpl) u.getMessageById(msg.get("skypeeditedid").asString());
-                        if (chatMessage != null) {
-                            chatMessage.edit0(message);
+        JsonObject data;
+        try {
+            data = Utils.parseJsonObject(input, "messages", (UncheckedConsumer<JsonValue>) value -> {
+                try {
+                    JsonObject msg = value.asObject();
+                    if (msg.get("messagetype").asString().equals("RichText") || msg.get("messagetype").asString().equals("Text")) {
+                        UserImpl u = (UserImpl) MessageType.getUser(msg.get("from").asString(), this);
+                        Message message = Message.fromHtml(MessageType.stripMetadata(msg.get("content").asString()));
+                        if (msg.get("clientmessageid") != null) {
+                            ChatMessage m = Factory.createMessage(this, u, msg.get("id").asString(),
+                                    msg.get("clientmessageid").asString(),
+                                    formatter.parse(msg.get("originalarrivaltime").asString()).getTime(), message
+                                    ,getClient());
+                            this.messages.add(0, m);
+                            u.insertMessage(m, 0);
+                            messages.add(m);
+                        } else {
+                            ChatMessageImpl chatMessage = (ChatMessageImpl) u.getMessageById(msg.get("skypeeditedid").asString());
+                            if (chatMessage != null) {
+                                chatMessage.edit0(message);
+                            }
                         }
                     }
+                } catch (ParseException e) {
+                    throw new RuntimeException(e);
                 }
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
+            });
+        } catch (IOException e) {
+            throw ExceptionHandler.generateException("While loading messages", e);
         }
 
         JsonObject metadata = data.get("_metadata").asObject();
@@ -264,17 +271,17 @@ public abstract class ChatImpl implements Chat {
 
     @Override
     public void startTyping(ErrorHandler handler) {
-        if (this.typingThread == null) {
-            this.typingThread = new TypingThread(this, handler);
-            this.typingThread.start();
+        if (this.typingTask == null) {
+            this.typingTask = new TypingTask(this, handler);
+            this.typingTask.start();
         }
     }
 
     @Override
     public void stopTyping() {
-        if (this.typingThread != null) {
-            this.typingThread.end();
-            this.typingThread = null;
+        if (this.typingTask != null) {
+            this.typingTask.end();
+            this.typingTask = null;
         }
     }
 
@@ -30,18 +30,18 @@ import com.samczsun.skype4j.internal.*;
 import com.samczsun.skype4j.internal.participants.info.ContactImpl;
 import com.samczsun.skype4j.internal.participants.info.ContactRequestImpl;
 import com.samczsun.skype4j.internal.utils.Encoder;
+import com.samczsun.skype4j.internal.utils.UncheckedConsumer;
 import com.samczsun.skype4j.internal.utils.UncheckedRunnable;
 import com.samczsun.skype4j.participants.info.Contact;
 
 import javax.xml.bind.DatatypeConverter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -59,17 +59,7 @@ public class FullClient extends SkypeImpl {
 
     @Override
     public void login() throws InvalidCredentialsException, ConnectionException {
-        Map<String, String> data = new HashMap<>();
-        data.put("scopes", "client");
-        data.put("clientVersion", "0/7.4.85.102/259/");
-        data.put("username", getUsername().toLowerCase());
-        data.put("passwordHash", hash());
-        JsonObject loginData = Endpoints.LOGIN_URL.open(this)
-                .as(JsonObject.class)
-                .expect(200, "While logging in")
-                .post(Encoder.encode(data));
-
-        this.setSkypeToken(loginData.get("skypetoken").asString());
+        this.setSkypeToken(requestSkypeToken());
 
         List<UncheckedRunnable> tasks = new ArrayList<>();
         tasks.add(() -> {
@@ -88,18 +78,25 @@ public class FullClient extends SkypeImpl {
         });
         tasks.add(this::registerEndpoint);
 
-        try {
-            ExecutorService executorService = Executors.newFixedThreadPool(5);
-            tasks.forEach(executorService::submit);
-            executorService.shutdown();
-            executorService.awaitTermination(1, TimeUnit.DAYS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        Utils.joinAll(getAsyncExecutor(), tasks);
 
         super.login();
     }
 
+    @Override
+    protected String requestSkypeToken() throws ConnectionException {
+        Map<String, String> data = new HashMap<>();
+        data.put("scopes", "client");
+        data.put("clientVersion", "0/7.4.85.102/259/");
+        data.put("username", getUsername().toLowerCase());
+        data.put("passwordHash", hash());
+        JsonObject loginData = Endpoints.LOGIN_URL.open(this)
+                .as(JsonObject.class)
+                .expect(200, "While logging in")
+                .post(Encoder.encode(data));
+        return loginData.get("skypetoken").asString();
+    }
+
     @Override
     public void logout() throws ConnectionException {
         Endpoints.LOGOUT_URL
@@ -113,18 +110,22 @@ public class FullClient extends SkypeImpl {
 
     @Override
     public void loadAllContacts() throws ConnectionException {
-        JsonObject object = Endpoints.GET_ALL_CONTACTS
+        InputStream input = Endpoints.GET_ALL_CONTACTS
                 .open(this, getUsername(), "default")
-                .as(JsonObject.class)
+                .as(InputStream.class)
                 .expect(200, "While loading contacts")
                 .get();
-        for (JsonValue value : object.get("contacts").asArray()) {
-            JsonObject obj = value.asObject();
-            if (obj.get("suggested") == null || !obj.get("suggested").asBoolean()) {
-                if (!allContacts.containsKey(obj.get("id").asString())) {
-                    this.allContacts.put(obj.get("id").asString(), new ContactImpl(this, obj));
+        try {
+            Utils.parseJsonObject(input, "contacts", (UncheckedConsumer<JsonValue>) value -> {
+                JsonObject obj = value.asObject();
+                if (obj.get("suggested") == null || !obj.get("suggested").asBoolean()) {
+                    if (!allContacts.containsKey(obj.get("id").asString())) {
+                        this.allContacts.put(obj.get("id").asString(), new ContactImpl(this, obj));
+                    }
                 }
-            }
+            });
+        } catch (IOException e) {
+            throw ExceptionHandler.generateException("While loading contacts", e);
         }
     }
 
@@ -156,18 +157,22 @@ public class FullClient extends SkypeImpl {
 
     @Override
     public void updateContactList() throws ConnectionException {
-        JsonObject obj = Endpoints.GET_ALL_CONTACTS
+        InputStream input = Endpoints.GET_ALL_CONTACTS
                 .open(this, getUsername(), "notification")
-                .as(JsonObject.class)
+                .as(InputStream.class)
                 .expect(200, "While loading contacts")
                 .get();
-        for (JsonValue value : obj.get("contacts").asArray()) {
-            if (value.asObject().get("suggested") == null || !value.asObject().get("suggested").asBoolean()) {
-                String id = value.asObject().get("id").asString();
-                ContactImpl impl = (ContactImpl) allContacts.get(id);
-                if (impl == null) impl = (ContactImpl) loadContact(id);
-                impl.update(value.asObject());
-            }
+        try {
+            Utils.parseJsonObject(input, "contacts", (UncheckedConsumer<JsonValue>) value -> {
+                if (value.asObject().get("suggested") == null || !value.asObject().get("suggested").asBoolean()) {
+                    String id = value.asObject().get("id").asString();
+                    ContactImpl impl = (ContactImpl) allContacts.get(id);
+                    if (impl == null) impl = (ContactImpl) loadContact(id);
+                    impl.update(value.asObject());
+                }
+            });
+        } catch (IOException e) {
+            throw ExceptionHandler.generateException("While loading contacts", e);
         }
     }
 
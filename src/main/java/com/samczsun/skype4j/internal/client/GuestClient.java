@@ -34,9 +34,6 @@ import java.net.HttpURLConnection;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 public class GuestClient extends SkypeImpl {
@@ -86,14 +83,7 @@ public class GuestClient extends SkypeImpl {
         });
         tasks.add(this::registerEndpoint);
 
-        try {
-            ExecutorService executorService = Executors.newFixedThreadPool(2);
-            tasks.forEach(executorService::submit);
-            executorService.shutdown();
-            executorService.awaitTermination(1, TimeUnit.DAYS);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        Utils.joinAll(getAsyncExecutor(), tasks);
 
         super.login();
     }
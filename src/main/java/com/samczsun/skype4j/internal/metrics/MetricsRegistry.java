@@ -0,0 +1,163 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal.metrics;
+
+import com.samczsun.skype4j.internal.DeduplicationWindow;
+import com.samczsun.skype4j.metrics.EndpointMetrics;
+import com.samczsun.skype4j.metrics.EventQueueMetrics;
+import com.samczsun.skype4j.metrics.StageMetrics;
+import com.samczsun.skype4j.metrics.Metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class MetricsRegistry implements Metrics {
+    public static final String DOMAIN = "com.samczsun.skype4j";
+
+    private final Map<String, EndpointMetricsImpl> endpoints = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private final Logger logger;
+    private EventQueueMetrics eventQueue;
+    private List<StageMetrics> stages = Collections.emptyList();
+    private DeduplicationWindow deduplicationWindow;
+    private String client;
+
+    public MetricsRegistry(Logger logger) {
+        this.logger = logger;
+    }
+
+    public EndpointMetricsImpl endpoint(String name) {
+        EndpointMetricsImpl metrics = endpoints.get(name);
+        if (metrics == null) {
+            EndpointMetricsImpl created = new EndpointMetricsImpl(name);
+            metrics = endpoints.putIfAbsent(name, created);
+            if (metrics == null) {
+                metrics = created;
+                synchronized (this) {
+                    if (client != null) {
+                        register(created);
+                    }
+                }
+            }
+        }
+        return metrics;
+    }
+
+    @Override
+    public Collection<EndpointMetrics> getEndpoints() {
+        return Collections.unmodifiableCollection(endpoints.values());
+    }
+
+    @Override
+    public EndpointMetrics getEndpoint(String name) {
+        return endpoints.get(name);
+    }
+
+    @Override
+    public EventQueueMetrics getEventQueue() {
+        return eventQueue;
+    }
+
+    public synchronized void setEventQueue(EventQueueMetrics eventQueue) {
+        this.eventQueue = eventQueue;
+    }
+
+    @Override
+    public List<StageMetrics> getStages() {
+        return stages;
+    }
+
+    public synchronized void setStages(List<StageMetrics> stages) {
+        this.stages = Collections.unmodifiableList(stages);
+    }
+
+    @Override
+    public long getDuplicateMessages() {
+        DeduplicationWindow deduplicationWindow = this.deduplicationWindow;
+        return deduplicationWindow == null ? 0 : deduplicationWindow.getDuplicates();
+    }
+
+    public void setDeduplicationWindow(DeduplicationWindow deduplicationWindow) {
+        this.deduplicationWindow = deduplicationWindow;
+    }
+
+    public synchronized void registerMBeans(String client) {
+        if (this.client != null) {
+            return;
+        }
+        this.client = client;
+        endpoints.values().forEach(this::register);
+        if (eventQueue != null) {
+            register(eventQueue);
+        }
+        stages.forEach(this::register);
+    }
+
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                logger.log(Level.FINE, "Could not unregister " + name, e);
+            }
+        }
+        registered.clear();
+        this.client = null;
+    }
+
+    private void register(EndpointMetricsImpl metrics) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Endpoint,client=" + ObjectName.quote(client) + ",name=" + metrics.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(metrics, EndpointMetrics.class, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            logger.log(Level.FINE, "Could not register metrics for " + metrics.getName(), e);
+        }
+    }
+
+    private void register(StageMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Stage,client=" + ObjectName.quote(client) + ",name=" + metrics.getName());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(metrics, StageMetrics.class, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            logger.log(Level.FINE, "Could not register metrics for stage " + metrics.getName(), e);
+        }
+    }
+
+    private void register(EventQueueMetrics metrics) {
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=EventQueue,client=" + ObjectName.quote(client));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(metrics, EventQueueMetrics.class, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            logger.log(Level.FINE, "Could not register event queue metrics", e);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.pipeline;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.DeduplicationWindow;
+import com.samczsun.skype4j.internal.EventType;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.StreamUtils;
+import com.samczsun.skype4j.internal.Utils;
+import com.samczsun.skype4j.metrics.StageMetrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carries poll responses from the poller to the listeners. The stages run on a pool shared by every client:
+ * <ol>
+ * <li>DECODE decompresses and parses a response and splits it into events</li>
+ * <li>ROUTE classifies each event, drops events no listener would see and messages which were already seen, and admits
+ * the rest to the client's event queue, which dispatches them on the chat's stripe of the event executor</li>
+ * </ol>
+ * Every stage passes events on in the order it received them, and a full buffer holds up the stage before it, so a
+ * slow listener eventually holds up polling. Responses are published through a {@link Producer}, of which only one is
+ * open at a time
+ */
+public class EventPipeline {
+    private static final int RESPONSE_CAPACITY = 64;
+    private static final int EVENT_CAPACITY = 1024;
+
+    private final SkypeImpl skype;
+    private final SpscRingBuffer<Response> responses = new SpscRingBuffer<>(RESPONSE_CAPACITY);
+    private final SpscRingBuffer<JsonObject> events = new SpscRingBuffer<>(EVENT_CAPACITY);
+    private final Stage<Response> decode;
+    private final Stage<JsonObject> route;
+    private final AtomicReference<Producer> producer = new AtomicReference<>();
+
+    // The response whose events did not all fit into the event buffer, only used by the DECODE stage
+    private Response decoding;
+    private JsonArray decoded;
+    private int next;
+
+    public EventPipeline(SkypeImpl skype) {
+        this.skype = skype;
+        this.decode = new Stage<Response>(skype, "DECODE", responses) {
+            @Override
+            public boolean handle(Response response) {
+                return decode(response);
+            }
+
+            @Override
+            protected boolean isBlocked() {
+                return events.size() == events.capacity();
+            }
+        };
+        this.route = new Stage<JsonObject>(skype, "ROUTE", events) {
+            @Override
+            public boolean handle(JsonObject event) throws InterruptedException {
+                route(event);
+                return true;
+            }
+
+            @Override
+            protected void drained(int count) {
+                decode.signal();
+            }
+        };
+    }
+
+    public void start() {
+        stop();
+        decoding = null;
+        decoded = null;
+        route.start();
+        decode.start();
+    }
+
+    public void stop() {
+        Producer producer = this.producer.getAndSet(null);
+        if (producer != null) {
+            producer.close();
+        }
+        decode.stop();
+        route.stop();
+    }
+
+    /**
+     * Open a producer for a new poller. The previous producer is closed first, waiting for a publish in progress to
+     * finish, so a poller which outlived its replacement cannot break the single producer rule of the response buffer
+     */
+    public Producer newProducer() {
+        Producer producer = new Producer();
+        Producer previous = this.producer.getAndSet(producer);
+        if (previous != null) {
+            previous.close();
+        }
+        return producer;
+    }
+
+    public List<StageMetrics> getStages() {
+        return Arrays.asList(decode, route);
+    }
+
+    /**
+     * @return Whether every event of the response was queued. If not, the rest are queued when the response is
+     * handed over again
+     */
+    private boolean decode(Response response) {
+        if (response != decoding) {
+            JsonObject message;
+            try {
+                message = Utils.parseJsonObject(StreamUtils.decode(response.encoding, new ByteArrayInputStream(response.body)));
+            } catch (IOException e) {
+                skype.handleError(ErrorSource.POLLING_SKYPE, e, false);
+                return true;
+            }
+            JsonValue eventMessages = message.get("eventMessages");
+            if (eventMessages == null) {
+                return true;
+            }
+            decoding = response;
+            decoded = eventMessages.asArray();
+            next = 0;
+        }
+        try {
+            for (; next < decoded.size(); next++) {
+                if (!events.tryPut(decoded.get(next).asObject())) {
+                    return false;
+                }
+            }
+        } finally {
+            route.signal();
+        }
+        decoding = null;
+        decoded = null;
+        return true;
+    }
+
+    private void route(JsonObject event) throws InterruptedException {
+        EventType type = EventType.getByName(Utils.getString(event, "resourceType"));
+        if (type == null) {
+            skype.handleError(ErrorSource.NO_MESSAGE_TYPE, null, false);
+            return;
+        }
+        if (!type.isObserved(skype, event)) {
+            return;
+        }
+        if (type == EventType.NEW_MESSAGE && isDuplicate(event)) {
+            return;
+        }
+        try {
+            skype.getEventQueue().submit(type, event);
+        } catch (RejectedExecutionException ignored) {
+            // The client is shutting down
+        }
+    }
+
+    private boolean isDuplicate(JsonObject event) {
+        JsonValue resource = event.get("resource");
+        if (resource == null || !resource.isObject()) {
+            return false;
+        }
+        String key = DeduplicationWindow.getKey(resource.asObject());
+        return key != null && !skype.getDeduplicationWindow().firstSeen(key);
+    }
+
+    /**
+     * Represents the right of one poller to publish responses. Publishing takes no lock; responses published after
+     * the producer was closed are dropped
+     */
+    public class Producer {
+        private volatile boolean closed;
+        private volatile Thread publisher;
+        private volatile Thread closer;
+
+        private Producer() {
+        }
+
+        /**
+         * Queue a poll response for decoding, waiting for room if the response buffer is full
+         *
+         * @param body     The raw response body
+         * @param encoding The Content-Encoding of the response, or null
+         * @throws InterruptedException If interrupted while waiting for room
+         */
+        public void publish(byte[] body, String encoding) throws InterruptedException {
+            publisher = Thread.currentThread();
+            try {
+                if (closed || !responses.put(new Response(body, encoding), () -> closed)) {
+                    return;
+                }
+            } finally {
+                release();
+            }
+            decode.signal();
+        }
+
+        /**
+         * Queue a poll response for decoding if there is room
+         *
+         * @return Whether the response was queued
+         */
+        public boolean offer(byte[] body, String encoding) {
+            publisher = Thread.currentThread();
+            try {
+                if (closed || !responses.offer(new Response(body, encoding))) {
+                    return false;
+                }
+            } finally {
+                release();
+            }
+            decode.signal();
+            return true;
+        }
+
+        private void release() {
+            publisher = null;
+            Thread closer = this.closer;
+            if (closer != null) {
+                LockSupport.unpark(closer);
+            }
+        }
+
+        /**
+         * Stop accepting responses and wait for a publish in progress, which gives up waiting for room
+         */
+        private void close() {
+            closed = true;
+            Thread publisher = this.publisher;
+            if (publisher == null || publisher == Thread.currentThread()) {
+                return;
+            }
+            LockSupport.unpark(publisher);
+            closer = Thread.currentThread();
+            boolean interrupted = false;
+            while (this.publisher != null) {
+                LockSupport.park(this);
+                interrupted |= Thread.interrupted();
+            }
+            closer = null;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class Response {
+        private final byte[] body;
+        private final String encoding;
+
+        private Response(byte[] body, String encoding) {
+            this.body = body;
+            this.encoding = encoding;
+        }
+    }
+}
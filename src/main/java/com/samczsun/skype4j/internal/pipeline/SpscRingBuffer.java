@@ -0,0 +1,213 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A bounded queue for exactly one producer thread and one consumer thread. Slots are preallocated and neither side
+ * takes a lock; a side only parks once the buffer has stayed full or empty for a short spin
+ */
+public class SpscRingBuffer<T> {
+    private static final int SPINS = 64;
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong stalls = new AtomicLong();
+    private volatile Thread parkedProducer;
+    private volatile Thread parkedConsumer;
+
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.buffer = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Add an item if there is room
+     *
+     * @return Whether the item was added
+     */
+    public boolean offer(T item) {
+        long tail = this.tail.get();
+        if (tail - head.get() == buffer.length) {
+            return false;
+        }
+        buffer[(int) tail & mask] = item;
+        this.tail.set(tail + 1);
+        Thread consumer = parkedConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Add an item if there is room, counting a stall if there is not. For producers which come back later instead
+     * of waiting
+     *
+     * @return Whether the item was added
+     */
+    public boolean tryPut(T item) {
+        if (offer(item)) {
+            return true;
+        }
+        stalls.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Add an item, waiting for room if the buffer is full
+     */
+    public void put(T item) throws InterruptedException {
+        put(item, () -> false);
+    }
+
+    /**
+     * Add an item, waiting for room if the buffer is full unless the wait is abandoned. Whoever abandons the wait
+     * should unpark the producer so it notices
+     *
+     * @return Whether the item was added
+     */
+    public boolean put(T item, BooleanSupplier abandoned) throws InterruptedException {
+        if (offer(item)) {
+            return true;
+        }
+        stalls.incrementAndGet();
+        for (int spins = 0; !offer(item); spins++) {
+            if (abandoned.getAsBoolean()) {
+                return false;
+            }
+            if (spins < SPINS) {
+                Thread.yield();
+                continue;
+            }
+            parkedProducer = Thread.currentThread();
+            if (size() == buffer.length) {
+                LockSupport.park(this);
+            }
+            parkedProducer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Wait until there is at least one item to drain
+     */
+    public void await() throws InterruptedException {
+        for (int spins = 0; isEmpty(); spins++) {
+            if (spins < SPINS) {
+                Thread.yield();
+                continue;
+            }
+            parkedConsumer = Thread.currentThread();
+            if (isEmpty()) {
+                LockSupport.park(this);
+            }
+            parkedConsumer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Hand up to the given number of items to the handler in order, stopping early at an item the handler refuses,
+     * which stays at the head of the buffer. The slots are given back to the producer in one go once the batch is
+     * done
+     *
+     * @return The number of items handled
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Handler<T> handler, int max) throws InterruptedException {
+        long head = this.head.get();
+        int count = (int) Math.min(max, tail.get() - head);
+        int handled = 0;
+        try {
+            while (handled < count) {
+                int index = (int) (head + handled) & mask;
+                boolean accepted = true;
+                try {
+                    accepted = handler.handle((T) buffer[index]);
+                } finally {
+                    if (accepted) {
+                        buffer[index] = null;
+                        handled++;
+                    }
+                }
+                if (!accepted) {
+                    break;
+                }
+            }
+        } finally {
+            if (handled > 0) {
+                this.head.set(head + handled);
+                Thread producer = parkedProducer;
+                if (producer != null) {
+                    LockSupport.unpark(producer);
+                }
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Discard every item. Only safe while neither side is running
+     */
+    public void clear() {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = null;
+        }
+        head.set(tail.get());
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Get the number of times the producer found the buffer full
+     */
+    public long getStalls() {
+        return stalls.get();
+    }
+
+    public interface Handler<T> {
+        /**
+         * @return Whether the item was taken. If not, it is handed over again by the next drain
+         */
+        boolean handle(T item) throws InterruptedException;
+    }
+}
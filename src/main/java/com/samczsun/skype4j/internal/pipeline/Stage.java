@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal.pipeline;
+
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.SkypeThreadFactory;
+import com.samczsun.skype4j.metrics.StageMetrics;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * A pipeline stage which drains its input buffer in batches. Stages do not own a thread: a stage is scheduled on a
+ * small pool shared by every client whenever its input has items, and at most one thread drains it at a time
+ */
+public abstract class Stage<T> implements StageMetrics, SpscRingBuffer.Handler<T>, Runnable {
+    private static final int BATCH_SIZE = 64;
+    private static final int MAX_BATCHES = 16;
+    private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final SkypeImpl skype;
+    private final String name;
+    private final SpscRingBuffer<T> input;
+    private final Executor executor;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Lock workerLock = new ReentrantLock();
+    private final Condition workerDone = workerLock.newCondition();
+    private volatile boolean running;
+    private Thread worker;
+
+    // Only written by the thread draining the stage
+    private volatile long processed;
+    private volatile long batches;
+    private volatile long busyNanos;
+
+    protected Stage(SkypeImpl skype, String name, SpscRingBuffer<T> input) {
+        this.skype = skype;
+        this.name = name;
+        this.input = input;
+        this.executor = SharedExecutor.EXECUTOR;
+    }
+
+    public void start() {
+        input.clear();
+        running = true;
+    }
+
+    /**
+     * Stop draining, interrupting a drain in progress and waiting a while for it to finish
+     */
+    public void stop() {
+        running = false;
+        long remaining = STOP_TIMEOUT;
+        workerLock.lock();
+        try {
+            if (worker == null || worker == Thread.currentThread()) {
+                return;
+            }
+            worker.interrupt();
+            while (worker != null) {
+                if (remaining <= 0) {
+                    skype.getLogger().warning("The " + name + " stage did not stop in time");
+                    return;
+                }
+                try {
+                    remaining = workerDone.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } finally {
+            workerLock.unlock();
+        }
+    }
+
+    /**
+     * Make sure the stage is scheduled, as its input has items or the stage it feeds has room again
+     */
+    public void signal() {
+        if (running && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the stage cannot make progress until the stage it feeds has drained
+     */
+    protected boolean isBlocked() {
+        return false;
+    }
+
+    /**
+     * Called after items were taken from the input
+     */
+    protected void drained(int count) {
+    }
+
+    @Override
+    public void run() {
+        workerLock.lock();
+        try {
+            worker = Thread.currentThread();
+        } finally {
+            workerLock.unlock();
+        }
+        try {
+            for (int i = 0; i < MAX_BATCHES && running; i++) {
+                long start = System.nanoTime();
+                int count;
+                try {
+                    count = input.drain(this, BATCH_SIZE);
+                } catch (RuntimeException e) {
+                    skype.getLogger().log(Level.SEVERE, "Unexpected exception in " + name + " stage", e);
+                    count = 1;
+                }
+                if (count == 0) {
+                    break;
+                }
+                busyNanos += System.nanoTime() - start;
+                processed += count;
+                batches++;
+                drained(count);
+            }
+        } catch (InterruptedException ignored) {
+        } finally {
+            workerLock.lock();
+            try {
+                worker = null;
+                // Do not leak an interrupt from stop() to the next task on this thread
+                Thread.interrupted();
+                workerDone.signalAll();
+            } finally {
+                workerLock.unlock();
+            }
+            scheduled.set(false);
+        }
+        // Anything published while the flag was still set is picked up here, unless the next stage is full, in
+        // which case that stage signals once it has drained
+        if (!input.isEmpty() && !isBlocked()) {
+            signal();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getProcessed() {
+        return processed;
+    }
+
+    @Override
+    public int getBacklog() {
+        return input.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return input.capacity();
+    }
+
+    @Override
+    public long getStalls() {
+        return input.getStalls();
+    }
+
+    @Override
+    public double getMeanBatchSize() {
+        long batches = this.batches;
+        return batches == 0 ? 0 : (double) processed / batches;
+    }
+
+    @Override
+    public double getMeanProcessingTime() {
+        long processed = this.processed;
+        return processed == 0 ? 0 : busyNanos / 1e6 / processed;
+    }
+
+    private static class SharedExecutor {
+        private static final Executor EXECUTOR = SkypeThreadFactory.newDaemonPool("Skype4J-Stage",
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import java.nio.ByteBuffer;
+
+class Buffers {
+    /**
+     * Append the remaining bytes of src to a buffer in write mode, growing it if needed
+     */
+    static ByteBuffer append(ByteBuffer buffer, ByteBuffer src) {
+        if (buffer.remaining() < src.remaining()) {
+            buffer = grow(buffer, buffer.position() + src.remaining());
+        }
+        return buffer.put(src);
+    }
+
+    /**
+     * Copy a buffer in write mode into a new one which can hold at least the given number of bytes
+     */
+    static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(capacity, buffer.capacity() * 2));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+}
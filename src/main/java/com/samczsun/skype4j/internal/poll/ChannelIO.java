@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+interface ChannelIO {
+    /**
+     * @return Whether the handshake is complete. If not, call again once the channel is ready
+     */
+    boolean handshake() throws IOException;
+
+    /**
+     * @return The number of bytes read, 0 if no data is available yet, or -1 at the end of the stream
+     */
+    int read(ByteBuffer dst) throws IOException;
+
+    void write(ByteBuffer src) throws IOException;
+
+    /**
+     * @return Whether all written data has reached the socket
+     */
+    boolean flush() throws IOException;
+
+    boolean wantsWrite();
+
+    /**
+     * @return Work which must run before the handshake or a read can make progress, or null if there is none
+     */
+    Runnable delegatedTask();
+}
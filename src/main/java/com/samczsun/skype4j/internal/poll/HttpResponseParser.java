@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An incremental parser for a single HTTP/1.1 response
+ */
+class HttpResponseParser {
+    private enum State {
+        STATUS, HEADERS, FIXED, CHUNK_SIZE, CHUNK, CHUNK_END, TRAILERS, UNTIL_CLOSE, DONE
+    }
+
+    private static final int MAX_LINE = 64 * 1024;
+
+    private final String method;
+    private final Map<String, String> headers = new HashMap<>();
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private State state = State.STATUS;
+    private int status;
+    private String statusMessage;
+    private boolean keepAlive;
+    private long remaining;
+    private long received;
+
+    HttpResponseParser(String method) {
+        this.method = method;
+    }
+
+    /**
+     * @return Whether the response is complete
+     */
+    boolean feed(ByteBuffer buffer) throws IOException {
+        received += buffer.remaining();
+        while (buffer.hasRemaining() && state != State.DONE) {
+            switch (state) {
+                case FIXED:
+                case CHUNK:
+                case UNTIL_CLOSE: {
+                    int count = state == State.UNTIL_CLOSE ? buffer.remaining() : (int) Math.min(remaining, buffer.remaining());
+                    body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+                    buffer.position(buffer.position() + count);
+                    if (state != State.UNTIL_CLOSE && (remaining -= count) == 0) {
+                        state = state == State.FIXED ? State.DONE : State.CHUNK_END;
+                    }
+                    break;
+                }
+                default:
+                    String text = readLine(buffer);
+                    if (text != null) {
+                        onLine(text);
+                    }
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Signal that the connection was closed
+     *
+     * @return Whether the response was complete
+     */
+    boolean finish() {
+        if (state == State.UNTIL_CLOSE) {
+            state = State.DONE;
+        }
+        return state == State.DONE;
+    }
+
+    boolean hasStarted() {
+        return received > 0;
+    }
+
+    long getReceived() {
+        return received;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    String getStatusMessage() {
+        return statusMessage;
+    }
+
+    String getHeader(String name) {
+        return headers.get(name.toLowerCase());
+    }
+
+    byte[] getBody() {
+        return body.toByteArray();
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    private String readLine(ByteBuffer buffer) throws ProtocolException {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                line.reset();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            line.write(b);
+            if (line.size() > MAX_LINE) {
+                throw new ProtocolException("Response line too long");
+            }
+        }
+        return null;
+    }
+
+    private void onLine(String text) throws ProtocolException {
+        switch (state) {
+            case STATUS: {
+                String[] parts = text.split(" ", 3);
+                if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+                    throw new ProtocolException("Invalid status line: " + text);
+                }
+                try {
+                    status = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    throw new ProtocolException("Invalid status line: " + text);
+                }
+                statusMessage = parts.length > 2 ? parts[2] : null;
+                keepAlive = parts[0].equals("HTTP/1.1");
+                state = State.HEADERS;
+                break;
+            }
+            case HEADERS:
+                if (!text.isEmpty()) {
+                    int colon = text.indexOf(':');
+                    if (colon > 0) {
+                        headers.put(text.substring(0, colon).trim().toLowerCase(), text.substring(colon + 1).trim());
+                    }
+                    return;
+                }
+                if (status >= 100 && status < 200) {
+                    headers.clear();
+                    state = State.STATUS;
+                    return;
+                }
+                String connection = getHeader("Connection");
+                if (connection != null) {
+                    keepAlive = connection.equalsIgnoreCase("keep-alive") || (keepAlive && !connection.equalsIgnoreCase("close"));
+                }
+                String encoding = getHeader("Transfer-Encoding");
+                String length = getHeader("Content-Length");
+                if (method.equals("HEAD") || status == 204 || status == 304) {
+                    state = State.DONE;
+                } else if (encoding != null && encoding.toLowerCase().contains("chunked")) {
+                    state = State.CHUNK_SIZE;
+                } else if (length != null) {
+                    try {
+                        remaining = Long.parseLong(length);
+                    } catch (NumberFormatException e) {
+                        throw new ProtocolException("Invalid Content-Length: " + length);
+                    }
+                    state = remaining == 0 ? State.DONE : State.FIXED;
+                } else {
+                    keepAlive = false;
+                    state = State.UNTIL_CLOSE;
+                }
+                break;
+            case CHUNK_SIZE: {
+                int end = text.indexOf(';');
+                try {
+                    remaining = Long.parseLong((end < 0 ? text : text.substring(0, end)).trim(), 16);
+                } catch (NumberFormatException e) {
+                    throw new ProtocolException("Invalid chunk size: " + text);
+                }
+                state = remaining == 0 ? State.TRAILERS : State.CHUNK;
+                break;
+            }
+            case CHUNK_END:
+                state = State.CHUNK_SIZE;
+                break;
+            case TRAILERS:
+                if (text.isEmpty()) {
+                    state = State.DONE;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
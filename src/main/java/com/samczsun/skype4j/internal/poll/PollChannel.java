@@ -0,0 +1,482 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.ExceptionHandler;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.StreamUtils;
+import com.samczsun.skype4j.internal.metrics.EndpointMetricsImpl;
+import com.samczsun.skype4j.internal.pipeline.EventPipeline;
+import com.samczsun.skype4j.internal.threads.PollThread;
+
+import javax.net.ssl.SSLEngine;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The long poll of one client, driven by a {@link SelectorLoop}. Requests are kept alive between polls, and
+ * responses are handed to the client's event pipeline so the loop only ever does I/O
+ */
+public class PollChannel implements Closeable {
+    private enum State {
+        IDLE, RESOLVING, CONNECTING, HANDSHAKING, WRITING, READING, WAITING, CLOSED
+    }
+
+    private final SkypeImpl skype;
+    private final String endpointId;
+    private final SelectorLoop loop;
+    private final EndpointMetricsImpl metrics;
+    private final EventPipeline.Producer producer;
+    private final ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+
+    private State state = State.IDLE;
+    private volatile boolean closeRequested;
+    private long deadline = Long.MAX_VALUE;
+    private int pollId;
+    private int failures;
+    private int connects;
+
+    private SocketChannel channel;
+    private SelectionKey key;
+    private ChannelIO io;
+    private String authority;
+    private boolean reused;
+    private HttpResponseParser response;
+    private long start = -1;
+
+    public PollChannel(SkypeImpl skype, String endpointId, SelectorLoop loop) {
+        this.skype = skype;
+        this.endpointId = endpointId;
+        this.loop = loop;
+        this.metrics = skype.getMetrics().endpoint(Endpoints.POLL.name());
+        this.producer = skype.getEventPipeline().newProducer();
+    }
+
+    public void start() {
+        loop.execute(() -> {
+            loop.add(this);
+            poll();
+        });
+    }
+
+    @Override
+    public void close() {
+        this.closeRequested = true;
+        loop.execute(this::terminate);
+    }
+
+    boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    long getDeadline() {
+        return deadline;
+    }
+
+    void checkDeadline(long now) {
+        if (now < deadline) {
+            return;
+        }
+        deadline = Long.MAX_VALUE;
+        if (state == State.IDLE) {
+            poll();
+        } else if (state != State.WAITING && state != State.CLOSED) {
+            boolean connecting = state == State.RESOLVING || state == State.CONNECTING;
+            failed(new SocketTimeoutException((connecting ? "Connect" : "Read") + " timed out"));
+        }
+    }
+
+    void onReady(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                if (channel.finishConnect()) {
+                    state = State.HANDSHAKING;
+                    handshake();
+                }
+            } else if (state == State.HANDSHAKING) {
+                handshake();
+            } else if (state == State.WRITING) {
+                flush();
+            } else if (state == State.READING) {
+                read();
+            } else {
+                // A kept alive connection was closed by the server, or sent something unexpected
+                disconnect();
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    void terminate() {
+        if (start >= 0) {
+            metrics.fail(start);
+            start = -1;
+        }
+        disconnect();
+        state = State.CLOSED;
+        deadline = Long.MAX_VALUE;
+    }
+
+    private void poll() {
+        if (closeRequested || !skype.isAuthenticated()) {
+            terminate();
+            return;
+        }
+        try {
+            URL url = new URL(skype.resolveUrl(Endpoints.POLL.template()
+                    .render(skype.getCloudPrefix(Endpoints.POLL), 1, new Object[]{pollId})));
+            int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+            String authority = url.getProtocol() + "://" + url.getHost() + ":" + port;
+            start = metrics.begin();
+            if (channel != null && authority.equals(this.authority)) {
+                reused = true;
+                send(url);
+                return;
+            }
+            disconnect();
+            this.authority = authority;
+            this.reused = false;
+            state = State.RESOLVING;
+            deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PollThread.CONNECT_TIMEOUT);
+            int attempt = ++connects;
+            String host = url.getHost();
+            boolean secure = url.getProtocol().equals("https");
+            try {
+                skype.getScheduler().execute(() -> resolve(attempt, host, port, secure));
+            } catch (RejectedExecutionException e) {
+                terminate();
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * Look up the host and set up TLS off the loop, as both can block for long enough to hold up every other channel
+     */
+    private void resolve(int attempt, String host, int port, boolean secure) {
+        try {
+            InetSocketAddress address = new InetSocketAddress(host, port);
+            if (address.isUnresolved()) {
+                throw new UnknownHostException(host);
+            }
+            SSLEngine engine = secure ? TlsChannelIO.createEngine(host, port) : null;
+            loop.execute(() -> {
+                if (state == State.RESOLVING && attempt == connects) {
+                    connect(address, engine);
+                }
+            });
+        } catch (IOException e) {
+            loop.execute(() -> {
+                if (state == State.RESOLVING && attempt == connects) {
+                    failed(e);
+                }
+            });
+        }
+    }
+
+    private void connect(InetSocketAddress address, SSLEngine engine) {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            io = engine != null ? new TlsChannelIO(channel, engine) : new PlainChannelIO(channel);
+            state = State.CONNECTING;
+            key = channel.register(loop.selector(), 0, this);
+            if (channel.connect(address)) {
+                state = State.HANDSHAKING;
+                handshake();
+            } else {
+                key.interestOps(SelectionKey.OP_CONNECT);
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void handshake() throws IOException {
+        if (io.handshake()) {
+            send(null);
+        } else if (!runDelegatedTask()) {
+            key.interestOps(io.wantsWrite() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Run the TLS engine's delegated work on the scheduler and carry on once it is done, so the loop never runs it
+     *
+     * @return Whether there was any work to run
+     */
+    private boolean runDelegatedTask() {
+        Runnable task = io.delegatedTask();
+        if (task == null) {
+            return false;
+        }
+        ChannelIO io = this.io;
+        key.interestOps(0);
+        try {
+            skype.getScheduler().execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    loop.execute(() -> {
+                        if (this.io == io) {
+                            resume();
+                        }
+                    });
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            terminate();
+        }
+        return true;
+    }
+
+    private void resume() {
+        try {
+            if (state == State.HANDSHAKING) {
+                handshake();
+            } else if (state == State.READING) {
+                read();
+            }
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void send(URL url) throws IOException {
+        if (url == null) {
+            url = new URL(skype.resolveUrl(Endpoints.POLL.template()
+                    .render(skype.getCloudPrefix(Endpoints.POLL), 1, new Object[]{pollId})));
+        }
+        String file = url.getFile().isEmpty() ? "/" : url.getFile();
+        String host = url.getPort() == -1 ? url.getHost() : url.getHost() + ":" + url.getPort();
+        byte[] request = ("POST " + file + " HTTP/1.1\r\n" +
+                "Host: " + host + "\r\n" +
+                "User-Agent: " + Endpoints.USER_AGENT + "\r\n" +
+                "RegistrationToken: " + skype.getRegistrationToken() + "\r\n" +
+                "Content-Type: application/json\r\n" +
+                "Accept-Encoding: " + StreamUtils.ACCEPT_ENCODING + "\r\n" +
+                "Content-Length: 0\r\n" +
+                "Connection: keep-alive\r\n" +
+                "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        metrics.sent(request.length);
+        response = new HttpResponseParser("POST");
+        io.write(ByteBuffer.wrap(request));
+        state = State.WRITING;
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PollThread.READ_TIMEOUT);
+        flush();
+    }
+
+    private void flush() throws IOException {
+        if (io.flush()) {
+            state = State.READING;
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void read() throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = io.read(buffer);
+            if (read == 0) {
+                runDelegatedTask();
+                return;
+            }
+            if (read < 0) {
+                if (response.finish()) {
+                    disconnect();
+                    completed();
+                    return;
+                }
+                throw new EOFException("Connection closed before the poll completed");
+            }
+            buffer.flip();
+            if (response.feed(buffer)) {
+                completed();
+                return;
+            }
+        }
+    }
+
+    private void completed() {
+        HttpResponseParser response = this.response;
+        this.response = null;
+        metrics.received(response.getReceived());
+        metrics.complete(start, response.getStatus());
+        start = -1;
+        deadline = Long.MAX_VALUE;
+        if (channel != null && response.isKeepAlive()) {
+            key.interestOps(SelectionKey.OP_READ);
+        } else {
+            disconnect();
+        }
+
+        String regtoken = response.getHeader("Set-RegistrationToken");
+        if (regtoken != null && !offLoop(() -> skype.setRegistrationToken(regtoken))) {
+            terminate();
+            return;
+        }
+
+        int code = response.getStatus();
+        if (code == 403) {
+            state = State.WAITING;
+            try {
+                skype.getScheduler().execute(() -> {
+                    int id = PollThread.refreshEndpoint(skype, endpointId, pollId);
+                    loop.execute(() -> {
+                        if (id < 0) {
+                            terminate();
+                        } else {
+                            pollId = id;
+                            disconnect();
+                            poll();
+                        }
+                    });
+                });
+            } catch (RejectedExecutionException e) {
+                terminate();
+            }
+            return;
+        }
+        if (code != 200) {
+            boolean fatal = PollThread.isFatal(code);
+            ConnectionException e = ExceptionHandler.generateException("While polling Skype", code,
+                    response.getStatusMessage(), response.getBody());
+            if (!offLoop(() -> skype.handleError(ErrorSource.POLLING_SKYPE, e, fatal)) || fatal) {
+                terminate();
+            } else {
+                backoff();
+            }
+            return;
+        }
+        failures = 0;
+
+        if (skype.getScheduler().isShutdown()) {
+            if (!skype.isShutdownRequested()) {
+                skype.handleError(ErrorSource.THREAD_POOL_DEAD, null, true);
+            }
+            terminate();
+            return;
+        }
+        byte[] body = response.getBody();
+        String encoding = response.getHeader("Content-Encoding");
+        // The next poll waits until the response has entered the pipeline, so a full pipeline holds up polling
+        state = State.WAITING;
+        if (producer.offer(body, encoding)) {
+            state = State.IDLE;
+            poll();
+            return;
+        }
+        try {
+            skype.getScheduler().execute(() -> {
+                try {
+                    producer.publish(body, encoding);
+                } catch (InterruptedException e) {
+                    loop.execute(this::terminate);
+                    return;
+                }
+                loop.execute(() -> {
+                    if (state == State.WAITING) {
+                        state = State.IDLE;
+                        poll();
+                    }
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            terminate();
+        }
+    }
+
+    private void failed(IOException e) {
+        if (state == State.CLOSED) {
+            return;
+        }
+        // The server may close a kept alive connection at any time, which is not worth reporting
+        boolean stale = reused && response != null && !response.hasStarted();
+        if (start >= 0) {
+            metrics.fail(start);
+            start = -1;
+        }
+        disconnect();
+        response = null;
+        if (closeRequested) {
+            terminate();
+        } else if (stale) {
+            state = State.IDLE;
+            poll();
+        } else if (offLoop(() -> skype.handleError(ErrorSource.POLLING_SKYPE, e, false))) {
+            backoff();
+        } else {
+            terminate();
+        }
+    }
+
+    /**
+     * Run work which may block or call user code on the scheduler, so it does not hold up the other channels on the
+     * loop
+     *
+     * @return Whether the scheduler accepted the work
+     */
+    private boolean offLoop(Runnable task) {
+        try {
+            skype.getScheduler().execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void backoff() {
+        state = State.IDLE;
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PollThread.getBackoff(skype, failures++));
+    }
+
+    private void disconnect() {
+        if (key != null) {
+            key.cancel();
+            key = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+        io = null;
+        authority = null;
+    }
+}
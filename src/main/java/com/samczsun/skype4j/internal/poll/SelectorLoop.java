@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A single I/O thread which drives the long polls of any number of clients
+ */
+public class SelectorLoop extends Thread {
+    private static final Logger LOGGER = Logger.getLogger(SelectorLoop.class.getName());
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final List<PollChannel> channels = new ArrayList<>();
+    private volatile boolean closed;
+
+    public SelectorLoop(String name) {
+        super(name);
+        setDaemon(true);
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Run the task on this loop's thread
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    public int getChannels() {
+        return channels.size();
+    }
+
+    Selector selector() {
+        return selector;
+    }
+
+    void add(PollChannel channel) {
+        channels.add(channel);
+    }
+
+    public void run() {
+        while (!closed) {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Poll task failed", e);
+                }
+            }
+
+            long now = System.nanoTime();
+            long next = now + TimeUnit.SECONDS.toNanos(1);
+            for (Iterator<PollChannel> it = channels.iterator(); it.hasNext(); ) {
+                PollChannel channel = it.next();
+                if (channel.isClosed()) {
+                    it.remove();
+                    continue;
+                }
+                channel.checkDeadline(now);
+                next = Math.min(next, channel.getDeadline());
+            }
+
+            try {
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - System.nanoTime())));
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Selector failed", e);
+                break;
+            }
+            for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                SelectionKey key = it.next();
+                it.remove();
+                try {
+                    ((PollChannel) key.attachment()).onReady(key);
+                } catch (CancelledKeyException ignored) {
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Poll channel failed", e);
+                }
+            }
+        }
+        for (PollChannel channel : channels) {
+            channel.terminate();
+        }
+        channels.clear();
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public void shutdown() {
+        this.closed = true;
+        this.selector.wakeup();
+        if (Thread.currentThread() != this) {
+            try {
+                this.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.poll;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.security.NoSuchAlgorithmException;
+
+class TlsChannelIO implements ChannelIO {
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final SocketChannel channel;
+    private final SSLEngine engine;
+    private ByteBuffer netIn;
+    private ByteBuffer netOut;
+    private ByteBuffer appIn;
+
+    TlsChannelIO(SocketChannel channel, SSLEngine engine) {
+        this.channel = channel;
+        this.engine = engine;
+        this.netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        this.netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+        this.appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+    }
+
+    /**
+     * Create a client engine which has begun its handshake. Loading the default context can block for a while, so
+     * this should not be called on a loop thread
+     */
+    static SSLEngine createEngine(String host, int port) throws IOException {
+        SSLEngine engine;
+        try {
+            engine = SSLContext.getDefault().createSSLEngine(host, port);
+        } catch (NoSuchAlgorithmException e) {
+            throw new SSLException(e);
+        }
+        engine.setUseClientMode(true);
+        SSLParameters parameters = engine.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        engine.setSSLParameters(parameters);
+        engine.beginHandshake();
+        return engine;
+    }
+
+    @Override
+    public boolean handshake() throws IOException {
+        while (true) {
+            if (!flush()) {
+                return false;
+            }
+            switch (engine.getHandshakeStatus()) {
+                case NEED_TASK:
+                    return false;
+                case NEED_WRAP:
+                    wrap(EMPTY);
+                    break;
+                case NEED_UNWRAP:
+                    int unwrapped = unwrap();
+                    if (unwrapped < 0) {
+                        throw new EOFException("Connection closed during TLS handshake");
+                    }
+                    if (unwrapped == 0) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        while (appIn.position() == 0) {
+            int unwrapped = unwrap();
+            if (unwrapped <= 0) {
+                return unwrapped;
+            }
+            SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+            if (status == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                handshake();
+                status = engine.getHandshakeStatus();
+            }
+            if (status == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                return 0;
+            }
+        }
+        appIn.flip();
+        int count = Math.min(appIn.remaining(), dst.remaining());
+        ByteBuffer slice = appIn.slice();
+        slice.limit(count);
+        dst.put(slice);
+        appIn.position(appIn.position() + count);
+        appIn.compact();
+        return count;
+    }
+
+    @Override
+    public void write(ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            wrap(src);
+        }
+    }
+
+    @Override
+    public boolean flush() throws IOException {
+        netOut.flip();
+        channel.write(netOut);
+        netOut.compact();
+        return netOut.position() == 0;
+    }
+
+    @Override
+    public boolean wantsWrite() {
+        return netOut.position() > 0;
+    }
+
+    @Override
+    public Runnable delegatedTask() {
+        if (engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_TASK) {
+            return null;
+        }
+        return () -> {
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+        };
+    }
+
+    private void wrap(ByteBuffer src) throws IOException {
+        while (true) {
+            SSLEngineResult result = engine.wrap(src, netOut);
+            switch (result.getStatus()) {
+                case BUFFER_OVERFLOW:
+                    netOut = Buffers.grow(netOut, netOut.position() + engine.getSession().getPacketBufferSize());
+                    break;
+                case CLOSED:
+                    throw new EOFException("TLS session closed");
+                default:
+                    return;
+            }
+        }
+    }
+
+    /**
+     * @return A positive number once a record was unwrapped, 0 if more data must arrive first, or -1 at the end of
+     * the stream
+     */
+    private int unwrap() throws IOException {
+        while (true) {
+            netIn.flip();
+            SSLEngineResult result;
+            try {
+                result = engine.unwrap(netIn, appIn);
+            } finally {
+                netIn.compact();
+            }
+            switch (result.getStatus()) {
+                case OK:
+                    return 1;
+                case BUFFER_OVERFLOW:
+                    appIn = Buffers.grow(appIn, appIn.position() + engine.getSession().getApplicationBufferSize());
+                    break;
+                case BUFFER_UNDERFLOW:
+                    if (!netIn.hasRemaining()) {
+                        netIn = Buffers.grow(netIn, netIn.position() + engine.getSession().getPacketBufferSize());
+                    }
+                    int read = channel.read(netIn);
+                    if (read <= 0) {
+                        return read;
+                    }
+                    break;
+                case CLOSED:
+                default:
+                    return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.threads;
+
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.HashedWheelTimer;
+import com.samczsun.skype4j.internal.SkypeImpl;
+
+import java.util.concurrent.TimeUnit;
+
+public class ActiveTask implements Runnable {
+    private static final long INTERVAL = TimeUnit.SECONDS.toMillis(12);
+
+    private final SkypeImpl skype;
+    private final String endpoint;
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    public ActiveTask(SkypeImpl skype, String endpoint) {
+        this.skype = skype;
+        this.endpoint = endpoint;
+    }
+
+    public void start() {
+        this.timeout = HashedWheelTimer.shared().scheduleWithFixedDelay(this, 0, INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void run() {
+        if (!skype.isLoggedIn() || !skype.isAuthenticated()) {
+            kill();
+            return;
+        }
+        try {
+            Endpoints.ACTIVE
+                    .open(skype, endpoint)
+                    .expect(201, "While submitting active for " + skype.getUsername())
+                    .post(new JsonObject().add("timeout", 12));
+        } catch (ConnectionException e) {
+            skype.handleError(ErrorSource.SESSION_ACTIVE, e, false);
+        }
+    }
+
+    /**
+     * Whether the task is still scheduled. The task cancels itself once the client is logged out or loses its session
+     */
+    public boolean isAlive() {
+        HashedWheelTimer.Timeout timeout = this.timeout;
+        return timeout != null && !timeout.isCancelled();
+    }
+
+    public void kill() {
+        HashedWheelTimer.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
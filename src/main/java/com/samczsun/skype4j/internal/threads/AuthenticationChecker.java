@@ -14,55 +14,65 @@
  *    limitations under the License.
  */
 
+
 package com.samczsun.skype4j.internal.threads;
 
 import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.HashedWheelTimer;
 import com.samczsun.skype4j.internal.SkypeImpl;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
 
-public class AuthenticationChecker extends Thread {
-    private static final Map<String, AtomicInteger> ID = new ConcurrentHashMap<>();
+public class AuthenticationChecker implements Runnable {
+    private static final long REAUTHENTICATE_BEFORE = TimeUnit.MINUTES.toMillis(30);
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
 
-    private SkypeImpl skype;
-    private AtomicBoolean stop = new AtomicBoolean(false);
+    private final SkypeImpl skype;
+    private volatile HashedWheelTimer.Timeout timeout;
+    private volatile boolean stop;
 
     public AuthenticationChecker(SkypeImpl skype) {
-        super(String.format("Skype4J-AuthenticationChecker-%s-%s", skype.getUsername(), ID.computeIfAbsent(skype.getUsername(), str -> new AtomicInteger()).getAndIncrement()));
         this.skype = skype;
     }
 
+    public void start() {
+        this.timeout = HashedWheelTimer.shared().schedule(this, 0, TimeUnit.MILLISECONDS);
+    }
+
     public void run() {
-        while (skype.isLoggedIn() && !stop.get()) {
-            long diff = (skype.getExpirationTime() - System.currentTimeMillis());
-            if (diff > 1800000) { //30 min
-                if (stop.get()) {
-                    return;
-                }
-                try {
-                    Thread.sleep(diff / 2);
-                } catch (InterruptedException ignored) {
-                }
-            } else {
-                if (stop.get()) {
-                    return;
-                }
-                try {
-                    skype.reauthenticate();
-                } catch (Exception e) {
-                    skype.handleError(ErrorSource.REAUTHENTICATING, e, true);
-                    //Don't see why you need to return in a finally block.
-                } finally {
-                    return;
-                }
+        if (stop || !skype.isLoggedIn()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            if (skype.getExpirationTime() - now <= REAUTHENTICATE_BEFORE) {
+                skype.reauthenticate();
+            } else if (skype.getRegistrationToken() != null && skype.getRegistrationTokenExpirationTime() - now <= REAUTHENTICATE_BEFORE) {
+                skype.refreshRegistrationToken();
             }
+        } catch (Exception e) {
+            skype.handleError(ErrorSource.REAUTHENTICATING, e, true);
+            return;
+        }
+        if (stop) {
+            return;
+        }
+        now = System.currentTimeMillis();
+        long diff = skype.getExpirationTime() - now;
+        if (skype.getRegistrationToken() != null) {
+            diff = Math.min(diff, skype.getRegistrationTokenExpirationTime() - now);
+        }
+        this.timeout = HashedWheelTimer.shared().schedule(this, Math.max(diff - REAUTHENTICATE_BEFORE, 0) / 2 + RETRY_DELAY, TimeUnit.MILLISECONDS);
+        if (stop) {
+            this.timeout.cancel();
         }
     }
 
     public void kill() {
-        this.stop.set(true);
+        this.stop = true;
+        HashedWheelTimer.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
     }
 }
@@ -17,109 +17,91 @@
 package com.samczsun.skype4j.internal.threads;
 
 import com.eclipsesource.json.JsonObject;
-import com.eclipsesource.json.JsonValue;
 import com.samczsun.skype4j.exceptions.ConnectionException;
 import com.samczsun.skype4j.exceptions.handler.ErrorSource;
 import com.samczsun.skype4j.internal.Endpoints;
-import com.samczsun.skype4j.internal.EventType;
 import com.samczsun.skype4j.internal.ExceptionHandler;
 import com.samczsun.skype4j.internal.SkypeImpl;
 import com.samczsun.skype4j.internal.SkypeThreadFactory;
+import com.samczsun.skype4j.internal.StreamUtils;
 import com.samczsun.skype4j.internal.Utils;
+import com.samczsun.skype4j.internal.metrics.EndpointMetricsImpl;
+import com.samczsun.skype4j.internal.pipeline.EventPipeline;
 
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+
+public class PollThread implements Runnable {
+    private static final long MIN_BACKOFF = 500;
+    public static final int CONNECT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(15);
+    // The gateway holds a poll open for at most 30 seconds, so anything longer means the connection is dead
+    public static final int READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(60);
 
-public class PollThread extends Thread {
     private final SkypeImpl skype;
-    private final ExecutorService inputFetcher;
     private final String endpointId;
-    private final Object lock = new Object();
+    private final Thread thread;
+    private final EventPipeline.Producer producer;
 
-    private IOException pendingException;
-    private HttpURLConnection connection;
+    private volatile HttpURLConnection connection;
 
     public PollThread(SkypeImpl skype, String endpointId) {
-        super(String.format("Skype4J-Poller-%s", skype.getUsername()));
         this.skype = skype;
-        this.inputFetcher = Executors.newSingleThreadExecutor(new SkypeThreadFactory(skype, "PollBlocker"));
         this.endpointId = endpointId;
+        this.producer = skype.getEventPipeline().newProducer();
+        this.thread = SkypeThreadFactory.newThread(skype, String.format("Skype4J-Poller-%s", skype.getUsername()), this);
+    }
+
+    public void start() {
+        thread.start();
     }
 
     public void run() {
         int pollId = 0;
+        int failures = 0;
         while (skype.isAuthenticated()) {
             final Endpoints.EndpointConnection<HttpURLConnection> epconn = Endpoints.POLL
                     .open(skype, pollId)
                     .header("Content-Type", "application/json")
+                    .timeout(CONNECT_TIMEOUT, READ_TIMEOUT)
                     .dontConnect();
-            final AtomicBoolean complete = new AtomicBoolean(false);
+            final EndpointMetricsImpl metrics = skype.getMetrics().endpoint(Endpoints.POLL.name());
             while (skype.isAuthenticated()) {
                 try {
-                    complete.set(false);
-                    connection = epconn.post();
-                    inputFetcher.execute(() -> {
-                        try {
-                            connection.getResponseCode();
-                        } catch (IOException e) {
-                            pendingException = e;
-                        } finally {
-                            complete.set(true);
-                            synchronized (lock) {
-                                lock.notify();
-                            }
-                        }
-                    });
-
-                    synchronized (lock) {
-                        if (!complete.get()) {
-                            lock.wait();
-                        }
-                    }
-
-                    if (pendingException != null) {
-                        skype.handleError(ErrorSource.POLLING_SKYPE, pendingException, false);
-                        continue;
+                    long start = metrics.begin();
+                    int code;
+                    try {
+                        connection = epconn.post();
+                        code = connection.getResponseCode();
+                    } catch (IOException | ConnectionException e) {
+                        metrics.fail(start);
+                        throw e;
                     }
+                    metrics.complete(start, code);
 
                     if (connection.getHeaderField("Set-RegistrationToken") != null) {
                         skype.setRegistrationToken(connection.getHeaderField("Set-RegistrationToken"));
                     }
 
-                    if (connection.getResponseCode() == 403) {
-                        try {
-                            HttpURLConnection conn = Endpoints
-                                    .custom("https://client-s.gateway.messenger.live.com/v1/users/ME/endpoints/" + endpointId,
-                                            skype)
-                                    .dontConnect()
-                                    .header("Authentication", "skypetoken=" + skype.getSkypeToken())
-                                    .put(new JsonObject());
-                            if (conn.getResponseCode() != 200) {
-                                skype.handleError(ErrorSource.REFRESHING_ENDPOINT,
-                                        ExceptionHandler.generateException("While refreshing endpoint", conn), true);
-                                return;
-                            }
-                            String regtoken = conn.getHeaderField("Set-RegistrationToken");
-                            if (regtoken != null) {
-                                skype.setRegistrationToken(regtoken);
-                            }
-                            JsonObject object = Utils.parseJsonObject(conn.getInputStream());
-                            if (object.get("subscriptions") != null) {
-                                pollId = object.get("subscriptions").asArray().get(0).asObject().get("id").asInt();
-                            }
-                            break;
-                        } catch (IOException e) {
-                            skype.handleError(ErrorSource.REFRESHING_ENDPOINT, e, true);
+                    if (code == 403) {
+                        pollId = refreshEndpoint(skype, endpointId, pollId);
+                        if (pollId < 0) {
                             return;
                         }
+                        break;
                     }
 
-                    if (connection.getResponseCode() != 200) {
+                    if (code != 200) {
+                        boolean fatal = isFatal(code);
+                        skype.handleError(ErrorSource.POLLING_SKYPE,
+                                ExceptionHandler.generateException("While polling Skype", connection), fatal);
+                        if (fatal) {
+                            return;
+                        }
+                        backoff(failures++);
                         continue;
                     }
+                    failures = 0;
 
                     if (skype.getScheduler().isShutdown()) {
                         if (!skype.isShutdownRequested()) {
@@ -128,43 +110,92 @@ public class PollThread extends Thread {
                         return;
                     }
 
-                    final JsonObject message = Utils.parseJsonObject(connection.getInputStream());
-                    skype.getScheduler().execute(() -> {
-                        if (message.get("eventMessages") != null) {
-                            for (JsonValue elem : message.get("eventMessages").asArray()) {
-                                JsonObject eventObj = elem.asObject();
-                                EventType type = EventType.getByName(eventObj.get("resourceType").asString());
-                                if (type != null) {
-                                    try {
-                                        type.handle(skype, eventObj);
-                                    } catch (Throwable t) {
-                                        skype.handleError(ErrorSource.PARSING_MESSAGE, t, false);
-                                    }
-                                } else {
-                                    skype.handleError(ErrorSource.NO_MESSAGE_TYPE, null, false);
-                                }
-                            }
-                        }
-                    });
+                    byte[] body = StreamUtils.readBytes(connection.getInputStream());
+                    producer.publish(body, connection.getContentEncoding());
                 } catch (InterruptedException e) {
                     return;
                 } catch (IOException | ConnectionException e) {
-                    skype.handleError(ErrorSource.POLLING_SKYPE, e, true);
-                    return;
+                    if (thread.isInterrupted()) {
+                        return;
+                    }
+                    // Transient gateway failures are retried with backoff instead of tearing down the session
+                    skype.handleError(ErrorSource.POLLING_SKYPE, e, false);
+                    try {
+                        backoff(failures++);
+                    } catch (InterruptedException ie) {
+                        return;
+                    }
                 } finally {
-                    connection.disconnect();
+                    HttpURLConnection connection = this.connection;
+                    if (connection != null) {
+                        connection.disconnect();
+                    }
                 }
             }
         }
     }
 
+    private void backoff(int failures) throws InterruptedException {
+        Thread.sleep(getBackoff(skype, failures));
+    }
+
+    public static long getBackoff(SkypeImpl skype, int failures) {
+        return Math.max(MIN_BACKOFF, skype.getRetryPolicy().getDelay(failures));
+    }
+
+    /**
+     * Whether the gateway rejected a poll in a way that retrying cannot fix, such as an expired session or an
+     * endpoint which no longer exists
+     */
+    public static boolean isFatal(int code) {
+        return code == 401 || code == 404;
+    }
+
+    /**
+     * Refresh the endpoint after the gateway rejected a poll with 403. Failures are fatal
+     *
+     * @return The subscription to poll from now on, or -1 if the client is shutting down
+     */
+    public static int refreshEndpoint(SkypeImpl skype, String endpointId, int pollId) {
+        try {
+            HttpURLConnection conn = Endpoints
+                    .custom("https://client-s.gateway.messenger.live.com/v1/users/ME/endpoints/" + endpointId,
+                            skype)
+                    .dontConnect()
+                    .header("Authentication", "skypetoken=" + skype.getSkypeToken())
+                    .put(new JsonObject());
+            if (conn.getResponseCode() != 200) {
+                skype.handleError(ErrorSource.REFRESHING_ENDPOINT,
+                        ExceptionHandler.generateException("While refreshing endpoint", conn), true);
+                return -1;
+            }
+            String regtoken = conn.getHeaderField("Set-RegistrationToken");
+            if (regtoken != null) {
+                skype.setRegistrationToken(regtoken);
+            }
+            JsonObject object = Utils.parseJsonObject(StreamUtils.getInputStream(conn));
+            if (object.get("subscriptions") != null) {
+                pollId = object.get("subscriptions").asArray().get(0).asObject().get("id").asInt();
+            }
+            return pollId;
+        } catch (IOException | ConnectionException e) {
+            skype.handleError(ErrorSource.REFRESHING_ENDPOINT, e, true);
+            return -1;
+        }
+    }
+
     public void shutdown() {
-        this.interrupt();
-        while (this.getState() != State.TERMINATED) ;
-        if (this.connection != null) {
-            this.connection.disconnect();
+        thread.interrupt();
+        HttpURLConnection connection = this.connection;
+        if (connection != null) {
+            connection.disconnect();
+        }
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join(READ_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
-        this.inputFetcher.shutdownNow();
-        while (!this.inputFetcher.isTerminated()) ;
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.threads;
+
+import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.HashedWheelTimer;
+import com.samczsun.skype4j.internal.SkypeImpl;
+
+import java.util.concurrent.TimeUnit;
+
+public class ServerPingTask implements Runnable {
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    private final SkypeImpl skype;
+    private volatile HashedWheelTimer.Timeout timeout;
+
+    public ServerPingTask(SkypeImpl skype) {
+        this.skype = skype;
+    }
+
+    public void start() {
+        this.timeout = HashedWheelTimer.shared().scheduleWithFixedDelay(this, 0, INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void run() {
+        if (!skype.isLoggedIn() || !skype.isAuthenticated()) {
+            kill();
+            return;
+        }
+        try {
+            Endpoints.PING_URL
+                    .open(skype)
+                    .expect(200, "While maintaining session")
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .cookies(skype.getCookies())
+                    .connect("POST", "sessionId=" + skype.getGuid().toString());
+        } catch (ConnectionException e) {
+            skype.handleError(ErrorSource.SERVER_PING, e, false); // After reviewing source this appears correct
+        }
+    }
+
+    public void kill() {
+        HashedWheelTimer.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+}
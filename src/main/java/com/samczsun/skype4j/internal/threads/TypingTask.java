@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.internal.threads;
+
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.exceptions.ConnectionException;
+import com.samczsun.skype4j.exceptions.handler.ErrorHandler;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.HashedWheelTimer;
+import com.samczsun.skype4j.internal.chat.ChatImpl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TypingTask implements Runnable {
+    private static final long INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+    private final ChatImpl chat;
+    private final ErrorHandler handler;
+    private volatile HashedWheelTimer.Timeout timeout;
+    private final Lock lock = new ReentrantLock();
+    private boolean stop;
+
+    public TypingTask(ChatImpl chat, ErrorHandler optionalHandler) {
+        this.chat = chat;
+        this.handler = optionalHandler;
+    }
+
+    public void start() {
+        this.timeout = HashedWheelTimer.shared().scheduleWithFixedDelay(this, 0, INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public void run() {
+        lock.lock();
+        try {
+            if (!stop) {
+                send("Control/Typing", " is typing", "While sending typing notification");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void end() {
+        HashedWheelTimer.Timeout timeout = this.timeout;
+        if (timeout == null) {
+            return;
+        }
+        timeout.cancel();
+        HashedWheelTimer.shared().schedule(this::stopTyping, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopTyping() {
+        lock.lock();
+        try {
+            if (!stop) {
+                stop = true;
+                send("Control/ClearTyping", " is done typing", "While removing typing notification");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(String type, String content, String cause) {
+        JsonObject obj = new JsonObject();
+        obj.add("content", chat.getClient().getUsername() + content);
+        obj.add("messagetype", type);
+        obj.add("contenttype", "text");
+        obj.add("clientmessageid", String.valueOf(System.currentTimeMillis()));
+
+        try {
+            Endpoints.SEND_MESSAGE_URL.open(chat.getClient(), chat.getIdentity())
+                    .expect(201, cause)
+                    .post(obj);
+        } catch (ConnectionException e) {
+            if (handler != null) {
+                handler.handle(ErrorSource.TYPING, e, false);
+            }
+            chat.getClient().handleError(ErrorSource.TYPING, e, false);
+        }
+    }
+}
@@ -18,19 +18,27 @@ package com.samczsun.skype4j.internal.utils;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class Encoder {
-    private static final Map<String, String> encoded = new HashMap<>();
+    private static final int MAX_CACHED = 1024;
+    private static final Map<String, String> encoded = new ConcurrentHashMap<>();
 
     public static String encode(String in) {
-        try {
-            if (!encoded.containsKey(in)) encoded.put(in, URLEncoder.encode(in, "UTF-8"));
-            return encoded.get(in);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        String result = encoded.get(in);
+        if (result == null) {
+            try {
+                result = URLEncoder.encode(in, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new RuntimeException(e);
+            }
+            if (encoded.size() >= MAX_CACHED) {
+                encoded.clear();
+            }
+            encoded.put(in, result);
         }
+        return result;
     }
 
     public static String encode(Map<String, String> data) {
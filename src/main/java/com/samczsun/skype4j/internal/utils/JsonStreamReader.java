@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal.utils;
+
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads a JSON object from a stream without building the whole document. The elements of one array member are
+ * handed out as soon as each of them has been read, so only a single element is held in memory at a time
+ */
+public class JsonStreamReader implements Closeable {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder capture = new StringBuilder();
+    private int position;
+    private int limit;
+    private long offset;
+
+    public JsonStreamReader(InputStream in) {
+        this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the top level object
+     *
+     * @param arrayName The member whose elements should be streamed
+     * @param consumer  Receives each element of the streamed member, in order
+     * @return The object, with every member except the streamed one
+     * @throws IOException If the stream could not be read or is not a JSON object
+     */
+    public JsonObject readObject(String arrayName, Consumer<JsonValue> consumer) throws IOException {
+        JsonObject result = new JsonObject();
+        expect(skipWhitespace(), '{');
+        int c = skipWhitespace();
+        if (c == '}') {
+            return result;
+        }
+        while (true) {
+            expect(c, '"');
+            String name = readString();
+            expect(skipWhitespace(), ':');
+            c = skipWhitespace();
+            if (name.equals(arrayName) && c == '[') {
+                readArray(consumer);
+            } else {
+                unread();
+                result.add(name, readValue());
+            }
+            c = skipWhitespace();
+            if (c == '}') {
+                return result;
+            }
+            expect(c, ',');
+            c = skipWhitespace();
+        }
+    }
+
+    private void readArray(Consumer<JsonValue> consumer) throws IOException {
+        int c = skipWhitespace();
+        if (c == ']') {
+            return;
+        }
+        unread();
+        while (true) {
+            consumer.accept(readValue());
+            c = skipWhitespace();
+            if (c == ']') {
+                return;
+            }
+            expect(c, ',');
+        }
+    }
+
+    private JsonValue readValue() throws IOException {
+        capture.setLength(0);
+        int c = skipWhitespace();
+        if (c == '"') {
+            capture.append('"');
+            copyString();
+        } else if (c == '{' || c == '[') {
+            capture.append((char) c);
+            int depth = 1;
+            while (depth > 0) {
+                c = read();
+                capture.append((char) c);
+                if (c == '"') {
+                    copyString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            }
+        } else {
+            while (c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                capture.append((char) c);
+                c = read();
+            }
+            unread();
+        }
+        return JsonValue.readFrom(capture.toString());
+    }
+
+    private void copyString() throws IOException {
+        while (true) {
+            int c = read();
+            capture.append((char) c);
+            if (c == '\\') {
+                capture.append((char) read());
+            } else if (c == '"') {
+                return;
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        capture.setLength(0);
+        capture.append('"');
+        copyString();
+        return JsonValue.readFrom(capture.toString()).asString();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (isWhitespace(c));
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            offset += limit;
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit == -1) {
+                limit = 0;
+                throw new IOException("Unexpected end of input at " + offset);
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void unread() {
+        position--;
+    }
+
+    private void expect(int actual, char expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format("Expected '%s' but found '%s' at %s", expected, (char) actual, offset + position - 1));
+        }
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
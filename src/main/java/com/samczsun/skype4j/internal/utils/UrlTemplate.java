@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.internal.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A URL pattern in the {@code String.format} dialect used by {@link com.samczsun.skype4j.internal.Endpoints},
+ * split once into literal segments so that rendering is a single pass over a pre-sized builder.
+ * Only {@code %s} and {@code %%} are directives; any other {@code %} is kept as is. Patterns without a
+ * {@code %s} are never formatted, just as before
+ */
+public class UrlTemplate {
+    private static final int ESTIMATED_ARG_LENGTH = 32;
+
+    private final String[] literals;
+    private final int literalLength;
+
+    private UrlTemplate(String[] literals) {
+        this.literals = literals;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static UrlTemplate literal(String url) {
+        return new UrlTemplate(new String[]{url});
+    }
+
+    public static UrlTemplate compile(String pattern) {
+        if (!pattern.contains("%s")) {
+            return literal(pattern);
+        }
+        List<String> literals = new ArrayList<>();
+        StringBuilder current = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '%' && i + 1 < pattern.length()) {
+                char next = pattern.charAt(i + 1);
+                if (next == 's') {
+                    literals.add(current.toString());
+                    current.setLength(0);
+                    i++;
+                    continue;
+                } else if (next == '%') {
+                    current.append('%');
+                    i++;
+                    continue;
+                }
+            }
+            current.append(c);
+        }
+        literals.add(current.toString());
+        return new UrlTemplate(literals.toArray(new String[literals.size()]));
+    }
+
+    public int getArity() {
+        return literals.length - 1;
+    }
+
+    /**
+     * Render everything up to and including the literal following the first placeholder
+     *
+     * @param first The value of the first placeholder
+     * @return The rendered prefix, to be passed to {@link #render(String, int, Object[])} with a bound of 1
+     */
+    public String prefix(Object first) {
+        if (getArity() < 1) {
+            throw new IllegalStateException("Template has no placeholders");
+        }
+        return literals[0] + first + literals[1];
+    }
+
+    public String render(Object[] args) {
+        return render(literals[0], 0, args);
+    }
+
+    /**
+     * Render this template, starting from an already rendered prefix
+     *
+     * @param prefix The rendered text up to and including the literal following placeholder {@code bound - 1}
+     * @param bound  The number of placeholders already contained in the prefix
+     * @param args   The values of the remaining placeholders. Extra values are ignored
+     * @return The rendered URL
+     */
+    public String render(String prefix, int bound, Object[] args) {
+        int remaining = getArity() - bound;
+        if (args.length < remaining) {
+            throw new IllegalArgumentException(
+                    String.format("Expected %s arguments but got %s", remaining, args.length));
+        }
+        if (remaining == 0) {
+            return prefix;
+        }
+        int capacity = prefix.length() + literalLength + remaining * ESTIMATED_ARG_LENGTH;
+        for (int i = 0; i <= bound; i++) {
+            capacity -= literals[i].length();
+        }
+        StringBuilder result = new StringBuilder(capacity).append(prefix);
+        for (int i = 0; i < remaining; i++) {
+            result.append(args[i]).append(literals[bound + i + 1]);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.metrics;
+
+import java.util.Map;
+
+/**
+ * Represents the metrics of requests made to a single endpoint.
+ * Latencies are measured from opening the connection until the response headers have been received
+ */
+public interface EndpointMetrics {
+    /**
+     * Get the name of the endpoint. Requests to URLs which are not known endpoints are grouped under {@code CUSTOM}
+     *
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * Get the number of requests which received a response, whatever its status code
+     *
+     * @return The number of requests
+     */
+    long getRequests();
+
+    /**
+     * Get the number of requests which failed without receiving a response
+     *
+     * @return The number of failures
+     */
+    long getFailures();
+
+    /**
+     * Get the number of requests which are currently waiting for a response
+     *
+     * @return The number of requests in flight
+     */
+    long getInFlight();
+
+    /**
+     * Get the number of request body bytes sent
+     *
+     * @return The number of bytes
+     */
+    long getBytesSent();
+
+    /**
+     * Get the number of response body bytes read, before decompression
+     *
+     * @return The number of bytes
+     */
+    long getBytesReceived();
+
+    /**
+     * Get the number of responses received with each status code
+     *
+     * @return A snapshot of the status code counters
+     */
+    Map<Integer, Long> getStatusCodes();
+
+    double getMeanLatency();
+
+    double getMedianLatency();
+
+    double get90thPercentileLatency();
+
+    double get99thPercentileLatency();
+
+    double getMaxLatency();
+
+    /**
+     * Get an approximation of the given latency percentile, accurate to within about 12.5%
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The latency in milliseconds
+     */
+    double getLatencyPercentile(double percentile);
+}
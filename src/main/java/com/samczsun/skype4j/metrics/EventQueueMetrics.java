@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.metrics;
+
+/**
+ * Represents the state of the queue of events which have been received but not yet handled
+ */
+public interface EventQueueMetrics {
+    /**
+     * Get the number of events waiting to be handled or being handled, not counting spilled events
+     *
+     * @return The queue depth
+     */
+    int getDepth();
+
+    /**
+     * Get the maximum queue depth
+     *
+     * @return The capacity
+     */
+    int getCapacity();
+
+    /**
+     * Get the number of events currently spilled to disk
+     *
+     * @return The number of events
+     */
+    long getSpilled();
+
+    /**
+     * Get the total number of events which have been spilled to disk
+     *
+     * @return The number of events
+     */
+    long getTotalSpilled();
+
+    /**
+     * Get the number of low priority events discarded because the queue was full
+     *
+     * @return The number of events
+     */
+    long getDropped();
+
+    /**
+     * Get the number of times polling was held up because the queue was full
+     *
+     * @return The number of times
+     */
+    long getBlocked();
+}
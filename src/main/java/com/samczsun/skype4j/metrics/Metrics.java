@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.metrics;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Represents the request metrics collected by a single Skype instance.
+ * Metrics are also published over JMX under the {@code com.samczsun.skype4j} domain while the instance is logged in
+ */
+public interface Metrics {
+    /**
+     * Get the metrics of every endpoint which has been contacted so far
+     *
+     * @return The metrics of each endpoint
+     */
+    Collection<EndpointMetrics> getEndpoints();
+
+    /**
+     * Get the metrics of a single endpoint
+     *
+     * @param name The name of the endpoint, such as {@code POLL} or {@code SEND_MESSAGE_URL}
+     * @return The metrics, or null if the endpoint has not been contacted
+     */
+    EndpointMetrics getEndpoint(String name);
+
+    /**
+     * Get the metrics of the queue of received events
+     *
+     * @return The {@link EventQueueMetrics}
+     */
+    EventQueueMetrics getEventQueue();
+
+    /**
+     * Get the metrics of each stage of the event pipeline, in the order events pass through them
+     *
+     * @return The metrics of each stage
+     */
+    List<StageMetrics> getStages();
+
+    /**
+     * Get the number of messages which were dropped because they had already been received or loaded
+     *
+     * @return The number of duplicate messages
+     */
+    long getDuplicateMessages();
+}
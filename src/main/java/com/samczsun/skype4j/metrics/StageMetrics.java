@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.metrics;
+
+/**
+ * Represents the metrics of one stage of the event pipeline. Each stage reads from a bounded buffer filled by the
+ * stage before it, and is drained by one thread at a time from a pool shared by every client
+ */
+public interface StageMetrics {
+    /**
+     * Get the name of the stage, such as {@code DECODE} or {@code ROUTE}
+     *
+     * @return The name
+     */
+    String getName();
+
+    /**
+     * Get the number of items the stage has processed
+     *
+     * @return The number of items
+     */
+    long getProcessed();
+
+    /**
+     * Get the number of items waiting in the stage's input buffer
+     *
+     * @return The number of items
+     */
+    int getBacklog();
+
+    /**
+     * Get the size of the stage's input buffer
+     *
+     * @return The capacity
+     */
+    int getCapacity();
+
+    /**
+     * Get the number of times the previous stage had to wait because the input buffer was full
+     *
+     * @return The number of stalls
+     */
+    long getStalls();
+
+    /**
+     * Get the average number of items processed per batch
+     *
+     * @return The mean batch size
+     */
+    double getMeanBatchSize();
+
+    /**
+     * Get the average time spent processing an item, including any time spent waiting on the next stage
+     *
+     * @return The time in milliseconds
+     */
+    double getMeanProcessingTime();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.transport;
+
+/**
+ * Represents a group of endpoints which share a client-side rate limit. No family is rate limited unless a limit is
+ * configured with {@link com.samczsun.skype4j.SkypeBuilder#withRateLimit(EndpointFamily, RateLimit)}
+ */
+public enum EndpointFamily {
+    /**
+     * Sending and editing messages, including typing notifications
+     */
+    MESSAGES(new RateLimit(5, 10)),
+    /**
+     * Adding, removing and changing the role of chat members
+     */
+    MEMBERS(new RateLimit(2, 5)),
+    /**
+     * Looking up user profiles
+     */
+    PROFILES(new RateLimit(5, 10));
+
+    private final RateLimit recommendedLimit;
+
+    EndpointFamily(RateLimit recommendedLimit) {
+        this.recommendedLimit = recommendedLimit;
+    }
+
+    /**
+     * Get a rate limit which stays below the limits Skype is known to enforce for this family
+     *
+     * @return The recommended rate limit
+     */
+    public RateLimit getRecommendedLimit() {
+        return this.recommendedLimit;
+    }
+}
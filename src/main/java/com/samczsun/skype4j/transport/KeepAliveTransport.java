@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The default transport. Response bodies are drained and closed instead of disconnected, which lets the JVM keep
+ * the socket (and its TLS session) alive for the next request to the same host. The number of idle sockets the JVM
+ * keeps per host is controlled by the {@code http.maxConnections} system property.
+ * <p>
+ * The number of requests awaiting a response from one host is limited, so a burst of requests queues up instead of
+ * opening a socket each. Long polls are not counted, since they wait on the server for as long as there are no events
+ */
+public class KeepAliveTransport implements Transport {
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 10;
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+
+    private final int maxRequestsPerHost;
+    private final Map<String, Semaphore> hosts = new ConcurrentHashMap<>();
+    private final Map<HttpURLConnection, Semaphore> leased = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a KeepAliveTransport which allows {@link #DEFAULT_MAX_REQUESTS_PER_HOST} concurrent requests per host
+     */
+    public KeepAliveTransport() {
+        this(DEFAULT_MAX_REQUESTS_PER_HOST);
+    }
+
+    /**
+     * Construct a KeepAliveTransport with the given limit on concurrent requests per host
+     *
+     * @param maxRequestsPerHost The maximum number of requests, other than long polls, which may be awaiting a
+     *                           response from one host
+     */
+    public KeepAliveTransport(int maxRequestsPerHost) {
+        if (maxRequestsPerHost < 1) {
+            throw new IllegalArgumentException("At least one request per host is required");
+        }
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    @Override
+    public HttpURLConnection open(URL url) throws IOException {
+        Semaphore permits = hosts.computeIfAbsent(url.getProtocol() + "://" + url.getAuthority(),
+                host -> new Semaphore(maxRequestsPerHost, true));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send a request to " + url.getHost());
+        }
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            leased.put(connection, permits);
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public HttpURLConnection openLongPoll(URL url) throws IOException {
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    @Override
+    public void release(HttpURLConnection connection) {
+        Semaphore permits = leased.remove(connection);
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void recycle(HttpURLConnection connection) {
+        try {
+            InputStream in = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in != null) {
+                byte[] buffer = new byte[4096];
+                long drained = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    drained += read;
+                    if (drained > DRAIN_LIMIT) {
+                        connection.disconnect();
+                        return;
+                    }
+                }
+                in.close();
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    public int getMaxRequestsPerHost() {
+        return this.maxRequestsPerHost;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.transport;
+
+/**
+ * Represents what happens to incoming events once the event queue is full
+ */
+public enum OverflowPolicy {
+    /**
+     * Stop polling until there is room. The server holds on to events in the meantime
+     */
+    BLOCK,
+    /**
+     * Discard low priority events, such as typing notifications and presence updates. Other events wait for room as
+     * with {@link #BLOCK}
+     */
+    DROP_LOW_PRIORITY,
+    /**
+     * Write further events to a temporary file and read them back in order as room becomes available
+     */
+    SPILL_TO_DISK
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+
+package com.samczsun.skype4j.transport;
+
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.poll.PollChannel;
+import com.samczsun.skype4j.internal.poll.SelectorLoop;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents a set of I/O threads which keep the long polls of many clients in flight at once, instead of each
+ * client blocking a thread of its own on its poll. Share one engine between every client in the JVM with
+ * {@link com.samczsun.skype4j.SkypeBuilder#withPollEngine(PollEngine)}, and close it once they have all logged out.
+ * The engine connects directly and does not use the proxy settings of {@link java.net.HttpURLConnection}
+ */
+public class PollEngine implements Closeable {
+    private final SelectorLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Construct a PollEngine with one I/O thread per available processor
+     */
+    public PollEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a PollEngine with the given number of I/O threads
+     *
+     * @param threads The number of I/O threads. Clients are spread evenly over them
+     */
+    public PollEngine(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.loops = new SelectorLoop[threads];
+        for (int i = 0; i < threads; i++) {
+            loops[i] = new SelectorLoop("Skype4J-PollEngine-" + i);
+            loops[i].start();
+        }
+    }
+
+    /**
+     * Start polling on behalf of the given client. This is called by the client when it subscribes
+     *
+     * @return A handle which stops polling when closed
+     */
+    public Closeable subscribe(SkypeImpl skype, String endpointId) {
+        SelectorLoop loop = loops[Math.floorMod(next.getAndIncrement(), loops.length)];
+        PollChannel channel = new PollChannel(skype, endpointId, loop);
+        channel.start();
+        return channel;
+    }
+
+    /**
+     * Get the number of I/O threads
+     *
+     * @return The number of threads
+     */
+    public int getThreads() {
+        return loops.length;
+    }
+
+    /**
+     * Stop every poll and the I/O threads
+     */
+    @Override
+    public void close() {
+        for (SelectorLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.transport;
+
+/**
+ * Represents a token bucket rate limit. Requests beyond the limit are delayed rather than rejected, and the rate is
+ * temporarily lowered whenever the server asks the client to slow down
+ */
+public class RateLimit {
+    /**
+     * A rate limit which never delays requests
+     */
+    public static final RateLimit UNLIMITED = new RateLimit(Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+    private final double permitsPerSecond;
+    private final int burst;
+
+    /**
+     * Construct a new RateLimit
+     *
+     * @param permitsPerSecond The sustained number of requests per second
+     * @param burst            The number of requests which may be made at once after a quiet period
+     */
+    public RateLimit(double permitsPerSecond, int burst) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Invalid rate limit");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+    }
+
+    public double getPermitsPerSecond() {
+        return this.permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return this.burst;
+    }
+
+    public boolean isUnlimited() {
+        return Double.isInfinite(this.permitsPerSecond);
+    }
+}
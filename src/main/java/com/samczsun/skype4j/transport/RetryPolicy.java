@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.transport;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Represents how failed requests are retried. Delays grow exponentially from the base delay up to the maximum
+ * delay, and the actual delay is chosen uniformly between zero and that bound so that many clients recovering
+ * from the same outage do not retry in lockstep
+ */
+public class RetryPolicy {
+    /**
+     * A policy which never retries
+     */
+    public static final RetryPolicy NONE = new RetryPolicy(0, 0, 0, false);
+
+    /**
+     * The default policy, which retries idempotent requests up to three times, starting at 250 milliseconds and
+     * never waiting longer than 10 seconds
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(3, 250, 10000, false);
+
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final boolean retryNonIdempotent;
+
+    /**
+     * Construct a new RetryPolicy
+     *
+     * @param maxRetries         The number of times a request may be retried after the first attempt
+     * @param baseDelay          The bound on the delay before the first retry, in milliseconds
+     * @param maxDelay           The bound on the delay before any retry, in milliseconds
+     * @param retryNonIdempotent Whether requests such as POST, which may have taken effect before failing, are retried
+     */
+    public RetryPolicy(int maxRetries, long baseDelay, long maxDelay, boolean retryNonIdempotent) {
+        if (maxRetries < 0 || baseDelay < 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        this.maxRetries = maxRetries;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.retryNonIdempotent = retryNonIdempotent;
+    }
+
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    public long getBaseDelay() {
+        return this.baseDelay;
+    }
+
+    public long getMaxDelay() {
+        return this.maxDelay;
+    }
+
+    public boolean isRetryNonIdempotent() {
+        return this.retryNonIdempotent;
+    }
+
+    /**
+     * Check whether a request made with the given method may be retried
+     *
+     * @param method The HTTP method
+     * @return Whether the request may be retried
+     */
+    public boolean canRetry(String method) {
+        switch (method.toUpperCase()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            default:
+                return retryNonIdempotent;
+        }
+    }
+
+    /**
+     * Check whether a response code indicates a transient failure
+     *
+     * @param code The response code
+     * @return Whether a request which received this response code is worth retrying
+     */
+    public boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    /**
+     * Get the time to wait before the given retry
+     *
+     * @param retry The number of retries made so far, starting at zero
+     * @return The delay in milliseconds
+     */
+    public long getDelay(int retry) {
+        long bound = retry >= 30 ? maxDelay : Math.min(maxDelay, baseDelay << retry);
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2016 Sam Sun <me@samczsun.com>
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.samczsun.skype4j.transport;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Represents the transport used to open connections to Skype's endpoints.
+ * Every connection opened through a transport will be released exactly once, and recycled once the response has
+ * been dealt with unless its body is handed to the caller
+ */
+public interface Transport {
+    /**
+     * Open a new connection to the given URL. Implementations may block until the host has capacity for another request
+     *
+     * @param url The URL to connect to
+     * @return The unconnected connection
+     * @throws IOException If the connection could not be opened
+     */
+    HttpURLConnection open(URL url) throws IOException;
+
+    /**
+     * Open a new connection for a long poll, which the server holds open until events arrive. Long polls should not
+     * count towards the per-host limits of {@link #open(URL)}, otherwise a few idle polls would block every other
+     * request to the same host
+     *
+     * @param url The URL to connect to
+     * @return The unconnected connection
+     * @throws IOException If the connection could not be opened
+     */
+    default HttpURLConnection openLongPoll(URL url) throws IOException {
+        return open(url);
+    }
+
+    /**
+     * Signal that the request on this connection has been answered, or has failed, and no longer counts towards
+     * the limits of its host
+     *
+     * @param connection The connection returned by {@link #open(URL)}
+     */
+    void release(HttpURLConnection connection);
+
+    /**
+     * Signal that the response body of this connection is no longer needed, so the underlying socket may be reused
+     *
+     * @param connection The connection returned by {@link #open(URL)}
+     */
+    void recycle(HttpURLConnection connection);
+}
@@ -0,0 +1,159 @@
+package com.samczsun.skype4j;
+
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.chat.Chat;
+import com.samczsun.skype4j.chat.messages.ChatMessage;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageEditedEvent;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.internal.DeduplicationWindow;
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class DeduplicationWindowTest {
+    @Test
+    public void testWindow() throws Exception {
+        DeduplicationWindow window = new DeduplicationWindow(200, TimeUnit.MILLISECONDS, 1000);
+        for (int i = 0; i < 500; i++) {
+            Assert.assertTrue(window.firstSeen("8:alice/" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            Assert.assertFalse(window.firstSeen("8:alice/" + i));
+        }
+        Assert.assertEquals(500, window.getDuplicates());
+        Thread.sleep(250);
+        Assert.assertTrue(window.firstSeen("8:alice/0"));
+    }
+
+    @Test
+    public void testCapacity() {
+        DeduplicationWindow window = new DeduplicationWindow(1, TimeUnit.HOURS, 100);
+        for (int i = 0; i < 300; i++) {
+            Assert.assertTrue(window.firstSeen(String.valueOf(i)));
+        }
+        // Only the last two generations are remembered
+        Assert.assertFalse(window.firstSeen("299"));
+        Assert.assertFalse(window.firstSeen("200"));
+        Assert.assertTrue(window.firstSeen("0"));
+    }
+
+    @Test
+    public void testEditAfterReceive() throws Exception {
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("user", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    received.add(event.getMessage().getContent().asPlaintext());
+                }
+
+                @EventHandler
+                public void onEdit(MessageEditedEvent event) {
+                    received.add("edited:" + event.getNewContent());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            try {
+                JsonObject resource = simulator.deliverMessage("8:alice", "alice", "original");
+                Assert.assertEquals("original", received.poll(10, TimeUnit.SECONDS));
+                JsonObject edit = JsonObject.readFrom(resource.toString())
+                        .add("skypeeditedid", resource.get("clientmessageid").asString())
+                        .set("content", "changed");
+                edit.remove("clientmessageid");
+                Assert.assertNull(DeduplicationWindow.getKey(edit));
+                simulator.deliver(new JsonObject().add("resourceType", "NewMessage").add("resource", edit));
+                Assert.assertEquals("edited:changed", received.poll(10, TimeUnit.SECONDS));
+                Assert.assertEquals(0, skype.getMetrics().getDuplicateMessages());
+            } finally {
+                skype.logout();
+            }
+        }
+    }
+
+    @Test
+    public void testRedelivery() throws Exception {
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("user", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    received.add(event.getMessage().getContent().asPlaintext());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            try {
+                JsonObject resource = simulator.deliverMessage("8:alice", "alice", "once");
+                simulator.deliver(new JsonObject().add("resourceType", "NewMessage").add("resource", resource));
+                simulator.deliverMessage("8:alice", "alice", "after");
+                Assert.assertEquals("once", received.poll(10, TimeUnit.SECONDS));
+                Assert.assertEquals("after", received.poll(10, TimeUnit.SECONDS));
+                Assert.assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+                Assert.assertEquals(1, skype.getMetrics().getDuplicateMessages());
+            } finally {
+                skype.logout();
+            }
+        }
+    }
+
+    @Test
+    public void testHistoryAfterReceive() throws Exception {
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("user", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            BlockingQueue<ChatMessage> received = new LinkedBlockingQueue<>();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    received.add(event.getMessage());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            try {
+                JsonObject resource = simulator.deliverMessage("8:alice", "alice", "live");
+                ChatMessage live = received.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(live);
+
+                Chat chat = live.getChat();
+                List<ChatMessage> history = chat.loadMoreMessages(10);
+                Assert.assertEquals(1, history.size());
+                Assert.assertEquals("live", history.get(0).getContent().asPlaintext());
+
+                simulator.deliver(new JsonObject().add("resourceType", "NewMessage").add("resource", resource));
+                simulator.deliverMessage("8:alice", "alice", "after");
+                Assert.assertEquals("after", received.poll(10, TimeUnit.SECONDS).getContent().asPlaintext());
+                Assert.assertEquals(1, skype.getMetrics().getDuplicateMessages());
+            } finally {
+                skype.logout();
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.chat.Chat;
+import com.samczsun.skype4j.events.Event;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.EventPriority;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.ChatEvent;
+import com.samczsun.skype4j.internal.LimitedExecutor;
+import com.samczsun.skype4j.internal.SkypeEventDispatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class EventDispatcherTest {
+    private final SkypeEventDispatcher dispatcher = new SkypeEventDispatcher(null);
+
+    @Test
+    public void testHierarchyAndUnregister() {
+        List<String> calls = new ArrayList<>();
+        Listener listener = new Listener() {
+            @EventHandler
+            public void onParent(ParentEvent event) {
+                calls.add("parent");
+            }
+
+            @EventHandler
+            public void onChild(ChildEvent event) {
+                calls.add("child");
+            }
+        };
+        dispatcher.registerListener(listener);
+        dispatcher.callEvent(new ChildEvent());
+        dispatcher.callEvent(new ParentEvent());
+        Assert.assertEquals(Arrays.asList("child", "parent", "parent"), calls);
+
+        dispatcher.unregisterListener(listener);
+        dispatcher.callEvent(new ChildEvent());
+        Assert.assertEquals(3, calls.size());
+    }
+
+    @Test
+    public void testRegisterAfterBake() {
+        List<String> calls = new ArrayList<>();
+        dispatcher.callEvent(new ChildEvent());
+        dispatcher.registerListener(new Listener() {
+            @EventHandler
+            public void onParent(ParentEvent event) {
+                calls.add("parent");
+            }
+        });
+        dispatcher.callEvent(new ChildEvent());
+        Assert.assertEquals(Arrays.asList("parent"), calls);
+    }
+
+    @Test
+    public void testWeakListener() throws Exception {
+        WeakReference<Listener> reference = registerWeak();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reference.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(reference.get());
+        // The cleared reference is enqueued by the reference handler thread, which may lag behind the GC
+        while (dispatcher.hasListeners(ChildEvent.class) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(dispatcher.hasListeners(ChildEvent.class));
+        dispatcher.callEvent(new ChildEvent());
+    }
+
+    @Test
+    public void testPriority() {
+        List<String> calls = new ArrayList<>();
+        dispatcher.registerListener(new Listener() {
+            @EventHandler(priority = EventPriority.HIGHEST)
+            public void onHighest(ParentEvent event) {
+                calls.add("highest");
+            }
+
+            @EventHandler
+            public void onNormal(ChildEvent event) {
+                calls.add("normal");
+            }
+
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onLowest(ParentEvent event) {
+                calls.add("lowest");
+            }
+        });
+        dispatcher.callEvent(new ChildEvent());
+        Assert.assertEquals(Arrays.asList("lowest", "normal", "highest"), calls);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            dispatcher.registerExecutor("test", executor);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(10);
+            List<Integer> order = new ArrayList<>();
+            List<String> sync = new ArrayList<>();
+            dispatcher.registerListener(new Listener() {
+                @EventHandler(async = true, executor = "test")
+                public void onSlow(NumberedEvent event) throws InterruptedException {
+                    release.await();
+                    synchronized (order) {
+                        order.add(event.number);
+                    }
+                    done.countDown();
+                }
+
+                @EventHandler
+                public void onFast(NumberedEvent event) {
+                    sync.add(Thread.currentThread().getName());
+                }
+            });
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                dispatcher.callEvent(new NumberedEvent(i));
+                expected.add(i);
+            }
+            Assert.assertEquals(10, sync.size());
+            release.countDown();
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(expected, order);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLimitedExecutorBlocksWhenFull() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            LimitedExecutor limited = new LimitedExecutor(executor, 1, 2);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger ran = new AtomicInteger();
+            Runnable task = () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+                ran.incrementAndGet();
+            };
+            for (int i = 0; i < 3; i++) {
+                limited.execute(task);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (limited.getQueued() > 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(2, limited.getQueued());
+            Thread submitter = new Thread(() -> limited.execute(task));
+            submitter.start();
+            submitter.join(200);
+            Assert.assertTrue(submitter.isAlive());
+            release.countDown();
+            submitter.join(5000);
+            Assert.assertFalse(submitter.isAlive());
+            deadline = System.currentTimeMillis() + 5000;
+            while (ran.get() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(4, ran.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownExecutor() {
+        dispatcher.registerListener(new Listener() {
+            @EventHandler(async = true, executor = "missing")
+            public void onEvent(ChildEvent event) {
+            }
+        });
+    }
+
+    @Test
+    public void testFilters() {
+        List<String> calls = new ArrayList<>();
+        dispatcher.registerListener(new Listener() {
+            @EventHandler(priority = EventPriority.HIGH, chats = "8:alice")
+            public void onAlice(ChatTestEvent event) {
+                calls.add("alice");
+            }
+
+            @EventHandler(chats = {"8:alice", "8:bob"}, messageTypes = "RichText")
+            public void onRichText(ChatTestEvent event) {
+                calls.add("richtext");
+            }
+
+            @EventHandler(priority = EventPriority.LOW, messageTypes = "Text")
+            public void onText(ChatTestEvent event) {
+                calls.add("text");
+            }
+
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onAny(ChatTestEvent event) {
+                calls.add("any");
+            }
+        });
+        dispatcher.callEvent(new ChatTestEvent("8:alice"), "RichText");
+        Assert.assertEquals(Arrays.asList("any", "richtext", "alice"), calls);
+        calls.clear();
+        dispatcher.callEvent(new ChatTestEvent("8:bob"), "Text");
+        Assert.assertEquals(Arrays.asList("any", "text"), calls);
+        calls.clear();
+        dispatcher.callEvent(new ChatTestEvent(null));
+        Assert.assertEquals(Arrays.asList("any"), calls);
+    }
+
+    @Test
+    public void testHasListeners() {
+        Assert.assertFalse(dispatcher.hasListeners(ChildEvent.class));
+        Listener listener = new Listener() {
+            @EventHandler(messageTypes = "Control/Typing")
+            public void onParent(ParentEvent event) {
+            }
+        };
+        dispatcher.registerListener(listener);
+        Assert.assertTrue(dispatcher.hasListeners(ChildEvent.class));
+        Assert.assertTrue(dispatcher.hasListeners(ChildEvent.class, "Control/Typing"));
+        Assert.assertFalse(dispatcher.hasListeners(ChildEvent.class, "Event/Call"));
+        Assert.assertFalse(dispatcher.hasListeners(ChatTestEvent.class));
+        dispatcher.unregisterListener(listener);
+        Assert.assertFalse(dispatcher.hasListeners(ChildEvent.class));
+    }
+
+    private WeakReference<Listener> registerWeak() {
+        Listener listener = new Listener() {
+            @EventHandler
+            public void onChild(ChildEvent event) {
+                Assert.fail("Collected listener was called");
+            }
+        };
+        dispatcher.registerWeakListener(listener);
+        return new WeakReference<>(listener);
+    }
+
+    public static class ParentEvent extends Event {
+    }
+
+    public static class ChildEvent extends ParentEvent {
+    }
+
+    public static class NumberedEvent extends Event {
+        private final int number;
+
+        public NumberedEvent(int number) {
+            this.number = number;
+        }
+    }
+
+    public static class ChatTestEvent extends ChatEvent {
+        public ChatTestEvent(String identity) {
+            super(identity == null ? null : (Chat) Proxy.newProxyInstance(Chat.class.getClassLoader(), new Class[]{Chat.class},
+                    (proxy, method, args) -> method.getName().equals("getIdentity") ? identity : null));
+        }
+    }
+}
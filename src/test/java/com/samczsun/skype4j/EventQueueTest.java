@@ -0,0 +1,113 @@
+package com.samczsun.skype4j;
+
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.events.chat.sent.TypingReceivedEvent;
+import com.samczsun.skype4j.metrics.EventQueueMetrics;
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import com.samczsun.skype4j.transport.OverflowPolicy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class EventQueueTest {
+    private GatewaySimulator simulator;
+    private Skype skype;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        simulator = new GatewaySimulator();
+        simulator.setPollTimeout(200);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        release.countDown();
+        if (skype != null) {
+            skype.logout();
+        }
+        simulator.close();
+    }
+
+    @Test
+    public void testSpillToDisk() throws Exception {
+        EventQueueMetrics queue = start(OverflowPolicy.SPILL_TO_DISK);
+        for (int i = 0; i < 10; i++) {
+            simulator.deliverMessage("8:alice", "alice", "message " + i);
+        }
+        await(() -> queue.getSpilled() == 8);
+        Assert.assertEquals(2, queue.getDepth());
+        release.countDown();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("message " + i, received.poll(10, TimeUnit.SECONDS));
+        }
+        await(() -> queue.getDepth() == 0);
+        Assert.assertEquals(0, queue.getSpilled());
+        Assert.assertEquals(8, queue.getTotalSpilled());
+    }
+
+    @Test
+    public void testDropLowPriority() throws Exception {
+        EventQueueMetrics queue = start(OverflowPolicy.DROP_LOW_PRIORITY);
+        simulator.deliverMessage("8:alice", "alice", "first");
+        simulator.deliverMessage("8:alice", "alice", "second");
+        await(() -> queue.getDepth() == 2);
+        for (int i = 0; i < 5; i++) {
+            simulator.deliver(new JsonObject()
+                    .add("resourceType", "NewMessage")
+                    .add("resource", new JsonObject()
+                            .add("messagetype", "Control/Typing")
+                            .add("conversationLink", "https://client-s.gateway.messenger.live.com/v1/users/ME/conversations/8:alice")));
+        }
+        await(() -> queue.getDropped() == 5);
+        simulator.deliverMessage("8:alice", "alice", "third");
+        await(() -> queue.getBlocked() == 1);
+        release.countDown();
+        Assert.assertEquals("first", received.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("second", received.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("third", received.poll(10, TimeUnit.SECONDS));
+    }
+
+    private EventQueueMetrics start(OverflowPolicy policy) throws Exception {
+        skype = new SkypeBuilder("user", "password")
+                .withAllResources()
+                .withEndpointBase(simulator.getBaseUrl())
+                .withEventQueue(2, policy)
+                .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                })
+                .build();
+        skype.getEventDispatcher().registerListener(new Listener() {
+            @EventHandler
+            public void onMessage(MessageReceivedEvent event) throws InterruptedException {
+                release.await();
+                received.add(event.getMessage().getContent().asPlaintext());
+            }
+
+            @EventHandler
+            public void onTyping(TypingReceivedEvent event) {
+            }
+        });
+        skype.login();
+        skype.subscribe();
+        return skype.getMetrics().getEventQueue();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timed out", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
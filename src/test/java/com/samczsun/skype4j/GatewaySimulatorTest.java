@@ -0,0 +1,175 @@
+package com.samczsun.skype4j;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.samczsun.skype4j.chat.GroupChat;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.internal.Utils;
+import com.samczsun.skype4j.simulator.Fault;
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import com.samczsun.skype4j.simulator.Route;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class GatewaySimulatorTest {
+    private GatewaySimulator simulator;
+    private Skype skype;
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Boolean> pollErrors = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        simulator = new GatewaySimulator();
+        simulator.setPollTimeout(200);
+        skype = new SkypeBuilder("user", "password")
+                .withAllResources()
+                .withEndpointBase(simulator.getBaseUrl())
+                .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    if (errorSource == ErrorSource.POLLING_SKYPE) {
+                        pollErrors.add(shutdown);
+                    }
+                })
+                .build();
+        skype.getEventDispatcher().registerListener(new Listener() {
+            @EventHandler
+            public void onMessage(MessageReceivedEvent event) {
+                received.add(event.getMessage().getContent().asPlaintext());
+            }
+        });
+        skype.login();
+        skype.subscribe();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (!((SkypeImpl) skype).isShutdownRequested()) {
+            skype.logout();
+        }
+        simulator.close();
+    }
+
+    @Test
+    public void testReceiveAndSend() throws Exception {
+        simulator.deliverMessage("8:alice", "alice", "hello");
+        Assert.assertEquals("hello", received.poll(10, TimeUnit.SECONDS));
+
+        skype.getOrLoadChat("8:alice").sendMessage("hi");
+        Assert.assertEquals(1, simulator.getSentMessages("8:alice").size());
+        Assert.assertEquals("hi", simulator.getSentMessages("8:alice").get(0).get("content").asString());
+    }
+
+    @Test
+    public void testGroupChat() throws Exception {
+        simulator.addGroupChat("19:test@thread.skype", "alice", "user");
+        GroupChat chat = (GroupChat) skype.loadChat("19:test@thread.skype");
+        Assert.assertEquals(2, chat.getAllParticipants().size());
+        simulator.deliverMessage("19:test@thread.skype", "alice", "group");
+        Assert.assertEquals("group", received.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncHandlerPool() throws Exception {
+        BlockingQueue<String> threads = new LinkedBlockingQueue<>();
+        skype.getEventDispatcher().registerListener(new Listener() {
+            @EventHandler(async = true)
+            public void onMessage(MessageReceivedEvent event) {
+                threads.add(Thread.currentThread().getName());
+            }
+        });
+        simulator.deliverMessage("8:alice", "alice", "async");
+        String thread = threads.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(thread);
+        Assert.assertTrue(thread, thread.startsWith("Skype4J-Handler-"));
+    }
+
+    @Test
+    public void testMessageTypeFilter() throws Exception {
+        BlockingQueue<String> richText = new LinkedBlockingQueue<>();
+        BlockingQueue<String> text = new LinkedBlockingQueue<>();
+        skype.getEventDispatcher().registerListener(new Listener() {
+            @EventHandler(messageTypes = "RichText")
+            public void onRichText(MessageReceivedEvent event) {
+                richText.add(event.getMessage().getContent().asPlaintext());
+            }
+
+            @EventHandler(messageTypes = "Text")
+            public void onText(MessageReceivedEvent event) {
+                text.add(event.getMessage().getContent().asPlaintext());
+            }
+        });
+        simulator.deliverMessage("8:alice", "alice", "filtered");
+        Assert.assertEquals("filtered", richText.poll(10, TimeUnit.SECONDS));
+        Assert.assertEquals("filtered", received.poll(10, TimeUnit.SECONDS));
+        Assert.assertTrue(text.isEmpty());
+    }
+
+    @Test
+    public void testPollFaults() throws Exception {
+        int polls = simulator.getRequestCount(Route.POLL);
+        simulator.fault(Route.POLL, Fault.status(503).times(2));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (simulator.getRequestCount(Route.POLL) < polls + 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(simulator.getRequestCount(Route.POLL) >= polls + 3);
+        simulator.deliverMessage("8:alice", "alice", "after faults");
+        Assert.assertEquals("after faults", received.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReportsPollStatus() throws Exception {
+        simulator.fault(Route.POLL, Fault.status(503).times(1));
+        Assert.assertEquals(Boolean.FALSE, pollErrors.poll(10, TimeUnit.SECONDS));
+        simulator.fault(Route.POLL, Fault.status(404).times(1));
+        Assert.assertEquals(Boolean.TRUE, pollErrors.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReauthenticateKeepsSubscription() throws Exception {
+        SkypeImpl impl = (SkypeImpl) skype;
+        int logins = simulator.getRequestCount(Route.LOGIN);
+        int subscribes = simulator.getRequestCount(Route.SUBSCRIBE);
+        int registrations = simulator.getRequestCount(Route.REGISTER_ENDPOINT);
+        String registrationToken = impl.getRegistrationToken();
+
+        impl.reauthenticate();
+        impl.refreshRegistrationToken();
+
+        Assert.assertEquals(logins + 1, simulator.getRequestCount(Route.LOGIN));
+        Assert.assertEquals(subscribes, simulator.getRequestCount(Route.SUBSCRIBE));
+        Assert.assertEquals(registrations, simulator.getRequestCount(Route.REGISTER_ENDPOINT));
+        Assert.assertNotEquals(registrationToken, impl.getRegistrationToken());
+        Assert.assertTrue(impl.isLoggedIn());
+
+        simulator.deliverMessage("8:alice", "alice", "after reauth");
+        Assert.assertEquals("after reauth", received.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testJoinFromAsyncThreads() throws Exception {
+        SkypeImpl impl = (SkypeImpl) skype;
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < SkypeImpl.ASYNC_THREADS * 2; i++) {
+            tasks.add(CompletableFuture.runAsync(() -> Utils.join(Endpoints.PROFILE_INFO
+                    .open(impl)
+                    .expect(200, "While getting contact info")
+                    .as(JsonArray.class)
+                    .postAsync(new JsonObject().add("usernames", new JsonArray().add("alice")))), impl.getAsyncExecutor()));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    }
+}
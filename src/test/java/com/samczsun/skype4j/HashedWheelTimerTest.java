@@ -0,0 +1,85 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.HashedWheelTimer;
+import com.samczsun.skype4j.internal.SkypeThreadFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTest {
+    private HashedWheelTimer timer;
+
+    @Before
+    public void setUp() {
+        timer = new HashedWheelTimer("TestTimer", TimeUnit.MILLISECONDS.toNanos(5), 8, Executors.newCachedThreadPool());
+    }
+
+    @After
+    public void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    public void testFiresAfterDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timer.schedule(latch::countDown, 200, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Assert.assertTrue("Fired after " + elapsed + "ms", elapsed >= 200 && elapsed < 1000);
+    }
+
+    @Test
+    public void testBoundedWorkers() throws Exception {
+        ThreadPoolExecutor workers = SkypeThreadFactory.newDaemonPool("TestWorker", 2);
+        HashedWheelTimer bounded = new HashedWheelTimer("BoundedTimer", TimeUnit.MILLISECONDS.toNanos(5), 8, workers);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(6);
+            for (int i = 0; i < 6; i++) {
+                bounded.schedule(() -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                    done.countDown();
+                }, 0, TimeUnit.MILLISECONDS);
+            }
+            Thread.sleep(200);
+            Assert.assertEquals(2, workers.getPoolSize());
+            release.countDown();
+            Assert.assertTrue(done.await(2, TimeUnit.SECONDS));
+        } finally {
+            bounded.stop();
+            workers.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        HashedWheelTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(timeout.cancel());
+        Assert.assertTrue(timeout.isCancelled());
+        Thread.sleep(200);
+        Assert.assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testFixedDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(5);
+        HashedWheelTimer.Timeout timeout = timer.scheduleWithFixedDelay(latch::countDown, 0, 20, TimeUnit.MILLISECONDS);
+        Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+        timeout.cancel();
+        long count = latch.getCount();
+        Thread.sleep(100);
+        Assert.assertEquals(count, latch.getCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.samczsun.skype4j;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.samczsun.skype4j.internal.Utils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonStreamReaderTest {
+    @Test
+    public void testStreamsElements() throws Exception {
+        JsonArray messages = new JsonArray();
+        for (int i = 0; i < 50; i++) {
+            messages.add(new JsonObject()
+                    .add("id", String.valueOf(i))
+                    .add("content", "<b>bold</b> \"quoted\" \\ back]slash} é " + i)
+                    .add("properties", new JsonObject().add("nested", new JsonArray().add(i).add(true).add(JsonValue.NULL))));
+        }
+        JsonObject metadata = new JsonObject().add("syncState", "abc").add("backwardLink", "https://host/?a=%2C");
+        String text = new JsonObject()
+                .add("count", 50)
+                .add("messages", messages)
+                .add("_metadata", metadata)
+                .add("empty", new JsonArray())
+                .toString();
+
+        List<JsonValue> streamed = new ArrayList<>();
+        JsonObject rest = Utils.parseJsonObject(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                "messages", streamed::add);
+
+        JsonArray collected = new JsonArray();
+        streamed.forEach(collected::add);
+        Assert.assertEquals(messages, collected);
+        Assert.assertNull(rest.get("messages"));
+        Assert.assertEquals(metadata, rest.get("_metadata"));
+        Assert.assertEquals(50, rest.get("count").asInt());
+        Assert.assertEquals(new JsonArray(), rest.get("empty"));
+    }
+
+    @Test
+    public void testWhitespaceAndEmptyArray() throws Exception {
+        String text = " {\n \"_metadata\" : { \"syncState\" : null } ,\r\n \"contacts\" : [ ] }\n";
+        List<JsonValue> streamed = new ArrayList<>();
+        JsonObject rest = Utils.parseJsonObject(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                "contacts", streamed::add);
+        Assert.assertTrue(streamed.isEmpty());
+        Assert.assertTrue(rest.get("_metadata").asObject().get("syncState").isNull());
+    }
+}
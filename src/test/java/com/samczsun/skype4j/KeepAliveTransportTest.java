@@ -0,0 +1,71 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import com.samczsun.skype4j.transport.KeepAliveTransport;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class KeepAliveTransportTest {
+    @Test
+    public void testLongPollsAreNotCounted() throws Exception {
+        KeepAliveTransport transport = new KeepAliveTransport(1);
+        URL url = new URL("http://localhost/poll");
+        transport.openLongPoll(url);
+        transport.openLongPoll(url);
+        HttpURLConnection first = transport.open(url);
+
+        CompletableFuture<HttpURLConnection> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return transport.open(url);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        try {
+            second.get(200, TimeUnit.MILLISECONDS);
+            Assert.fail("Second request should wait for the first");
+        } catch (TimeoutException expected) {
+        }
+        transport.release(first);
+        Assert.assertNotNull(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testUnreadResponsesAreRecycled() throws Exception {
+        Set<String> recycled = ConcurrentHashMap.newKeySet();
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("user", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withTransport(new KeepAliveTransport() {
+                        @Override
+                        public void recycle(HttpURLConnection connection) {
+                            recycled.add(connection.getRequestMethod() + " " + connection.getURL().getPath());
+                            super.recycle(connection);
+                        }
+                    })
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            skype.login();
+            skype.subscribe();
+            try {
+                Assert.assertTrue(recycled.toString(), recycled.stream().anyMatch(
+                        request -> request.startsWith("POST") && request.endsWith("/v1/users/ME/endpoints")));
+                Assert.assertTrue(recycled.toString(), recycled.stream().anyMatch(
+                        request -> request.startsWith("POST") && request.endsWith("/v1/users/ME/endpoints/SELF/subscriptions")));
+            } finally {
+                skype.logout();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.metrics.EndpointMetricsImpl;
+import com.samczsun.skype4j.internal.metrics.LatencyHistogram;
+import com.samczsun.skype4j.internal.metrics.MetricsRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+public class MetricsTest {
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(50000.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(100000, histogram.getMax());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            double expected = percentile * 1000;
+            double actual = histogram.getPercentile(percentile);
+            Assert.assertTrue(percentile + ": " + actual, actual >= expected && actual <= expected * 1.125);
+        }
+        Assert.assertEquals(100000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testRegistry() throws Exception {
+        Assert.assertEquals("POLL", Endpoints.POLL.name());
+        MetricsRegistry registry = new MetricsRegistry(Logger.getAnonymousLogger());
+        EndpointMetricsImpl metrics = registry.endpoint("SEND_MESSAGE_URL");
+        Assert.assertSame(metrics, registry.endpoint("SEND_MESSAGE_URL"));
+
+        long start = metrics.begin();
+        Assert.assertEquals(1, metrics.getInFlight());
+        metrics.sent(10);
+        metrics.complete(start, 201);
+        metrics.fail(metrics.begin());
+        InputStream in = metrics.countReceived(new ByteArrayInputStream(new byte[100]));
+        while (in.read(new byte[7]) > 0) ;
+
+        Assert.assertEquals(0, metrics.getInFlight());
+        Assert.assertEquals(1, metrics.getRequests());
+        Assert.assertEquals(1, metrics.getFailures());
+        Assert.assertEquals(10, metrics.getBytesSent());
+        Assert.assertEquals(100, metrics.getBytesReceived());
+        Assert.assertEquals(Long.valueOf(1), metrics.getStatusCodes().get(201));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registry.registerMBeans("metrics-test");
+        registry.endpoint("POLL");
+        ObjectName name = new ObjectName(MetricsRegistry.DOMAIN + ":type=Endpoint,client=" + ObjectName.quote("metrics-test") + ",name=SEND_MESSAGE_URL");
+        Assert.assertEquals(1L, server.getAttribute(name, "Requests"));
+        Assert.assertTrue(server.isRegistered(new ObjectName(MetricsRegistry.DOMAIN + ":type=Endpoint,client=" + ObjectName.quote("metrics-test") + ",name=POLL")));
+        registry.unregisterMBeans();
+        Assert.assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,150 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.exceptions.handler.ErrorSource;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.simulator.Fault;
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import com.samczsun.skype4j.simulator.Route;
+import com.samczsun.skype4j.transport.PollEngine;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class PollEngineTest {
+    private GatewaySimulator simulator;
+    private PollEngine engine;
+    private final List<Skype> clients = new ArrayList<>();
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Boolean> pollErrors = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() throws Exception {
+        simulator = new GatewaySimulator();
+        simulator.setPollTimeout(200);
+        engine = new PollEngine(2);
+        for (int i = 0; i < 5; i++) {
+            Skype skype = new SkypeBuilder("user" + i, "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withPollEngine(engine)
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                        if (errorSource == ErrorSource.POLLING_SKYPE) {
+                            pollErrors.add(shutdown);
+                        }
+                    })
+                    .build();
+            String name = skype.getUsername();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    received.add(name + ":" + event.getMessage().getContent().asPlaintext());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            clients.add(skype);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (Skype skype : clients) {
+            if (!((SkypeImpl) skype).isShutdownRequested()) {
+                skype.logout();
+            }
+        }
+        engine.close();
+        simulator.close();
+    }
+
+    @Test
+    public void testSharedPolling() throws Exception {
+        simulator.deliverMessage("8:alice", "alice", "hello");
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < clients.size(); i++) {
+            String message = received.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(messages.toString(), message);
+            messages.add(message);
+        }
+        for (int i = 0; i < clients.size(); i++) {
+            Assert.assertTrue(messages.toString(), messages.contains("user" + i + ":hello"));
+        }
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            Assert.assertFalse(thread.getName(), thread.getName().matches("Skype4J-(Poller|DECODE|ROUTE)-user\\d+"));
+        }
+    }
+
+    @Test
+    public void testRecoversFromFaults() throws Exception {
+        simulator.setChunked(true);
+        int polls = simulator.getRequestCount(Route.POLL);
+        simulator.fault(Route.POLL, Fault.status(503).times(3));
+        simulator.fault(Route.POLL, Fault.disconnect().times(2));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (simulator.getRequestCount(Route.POLL) < polls + 5 + clients.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        simulator.deliverMessage("8:alice", "alice", "after faults");
+        for (int i = 0; i < clients.size(); i++) {
+            Assert.assertNotNull(received.poll(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testReportsPollStatus() throws Exception {
+        simulator.fault(Route.POLL, Fault.status(503).times(1));
+        Assert.assertEquals(Boolean.FALSE, pollErrors.poll(10, TimeUnit.SECONDS));
+        simulator.fault(Route.POLL, Fault.status(404).times(1));
+        Assert.assertEquals(Boolean.TRUE, pollErrors.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testHttps() throws Exception {
+        SSLContext context = GatewaySimulator.createSslContext();
+        SSLContext defaultContext = SSLContext.getDefault();
+        SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+        SSLContext.setDefault(context);
+        HttpsURLConnection.setDefaultSSLSocketFactory(context.getSocketFactory());
+        try (GatewaySimulator secure = new GatewaySimulator(context)) {
+            secure.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("secure", "password")
+                    .withAllResources()
+                    .withEndpointBase(secure.getBaseUrl())
+                    .withPollEngine(engine)
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    received.add("secure:" + event.getMessage().getContent().asPlaintext());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            try {
+                secure.deliverMessage("8:alice", "alice", "hello");
+                Assert.assertEquals("secure:hello", received.poll(10, TimeUnit.SECONDS));
+                Assert.assertTrue(secure.getRequestCount(Route.POLL) > 0);
+            } finally {
+                skype.logout();
+            }
+        } finally {
+            SSLContext.setDefault(defaultContext);
+            HttpsURLConnection.setDefaultSSLSocketFactory(defaultFactory);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.RateLimiter;
+import com.samczsun.skype4j.internal.SkypeImpl;
+import com.samczsun.skype4j.transport.EndpointFamily;
+import com.samczsun.skype4j.transport.RateLimit;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RateLimiterTest {
+    @Test
+    public void testBurstThenPaced() throws Exception {
+        RateLimiter limiter = new RateLimiter(new RateLimit(50, 5));
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+        }
+        Assert.assertTrue(elapsed(start) < 50);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+        Assert.assertTrue(elapsed(start) >= 150);
+    }
+
+    @Test
+    public void testThrottled() throws Exception {
+        RateLimiter limiter = new RateLimiter(new RateLimit(100, 1));
+        limiter.onThrottled(100);
+        Assert.assertEquals(50, limiter.getCurrentRate(), 0.001);
+        long start = System.nanoTime();
+        limiter.acquire();
+        Assert.assertTrue(elapsed(start) >= 90);
+    }
+
+    @Test
+    public void testOptIn() throws Exception {
+        SkypeImpl skype = (SkypeImpl) new SkypeBuilder("user", "password")
+                .withAllResources()
+                .withRateLimit(EndpointFamily.MEMBERS, EndpointFamily.MEMBERS.getRecommendedLimit())
+                .build();
+        Assert.assertNull(skype.getRateLimiter(EndpointFamily.MESSAGES));
+        Assert.assertNotNull(skype.getRateLimiter(EndpointFamily.MEMBERS));
+    }
+
+    private static long elapsed(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
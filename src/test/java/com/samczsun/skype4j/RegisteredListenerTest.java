@@ -0,0 +1,64 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.events.Event;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.internal.RegisteredListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RegisteredListenerTest {
+    @Test
+    public void testPublicListener() throws Exception {
+        PublicListener listener = new PublicListener();
+        TestEvent event = new TestEvent();
+        new RegisteredListener(listener, PublicListener.class.getMethod("onEvent", TestEvent.class)).handleEvent(event);
+        Assert.assertEquals(1, listener.events.size());
+        Assert.assertSame(event, listener.events.get(0));
+    }
+
+    @Test
+    public void testAnonymousListener() throws Exception {
+        List<Event> events = new ArrayList<>();
+        Listener listener = new Listener() {
+            @EventHandler
+            public void onEvent(TestEvent event) {
+                events.add(event);
+            }
+        };
+        new RegisteredListener(listener, listener.getClass().getMethod("onEvent", TestEvent.class)).handleEvent(new TestEvent());
+        Assert.assertEquals(1, events.size());
+    }
+
+    @Test
+    public void testExceptionIsWrapped() throws Exception {
+        PublicListener listener = new PublicListener();
+        try {
+            new RegisteredListener(listener, PublicListener.class.getMethod("onFailure", TestEvent.class)).handleEvent(new TestEvent());
+            Assert.fail();
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    public static class TestEvent extends Event {
+    }
+
+    public static class PublicListener implements Listener {
+        private final List<Event> events = new ArrayList<>();
+
+        @EventHandler
+        public void onEvent(TestEvent event) {
+            events.add(event);
+        }
+
+        @EventHandler
+        public void onFailure(TestEvent event) {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.CircuitBreaker;
+import com.samczsun.skype4j.transport.RetryPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+    @Test
+    public void testDelayBounds() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 1000, false);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(policy.getDelay(0) <= 100);
+            Assert.assertTrue(policy.getDelay(2) <= 400);
+            Assert.assertTrue(policy.getDelay(40) <= 1000);
+            Assert.assertTrue(policy.getDelay(40) >= 0);
+        }
+        Assert.assertEquals(0, RetryPolicy.NONE.getDelay(3));
+    }
+
+    @Test
+    public void testIdempotency() {
+        Assert.assertTrue(RetryPolicy.DEFAULT.canRetry("GET"));
+        Assert.assertTrue(RetryPolicy.DEFAULT.canRetry("put"));
+        Assert.assertFalse(RetryPolicy.DEFAULT.canRetry("POST"));
+        Assert.assertTrue(new RetryPolicy(1, 0, 0, true).canRetry("POST"));
+        Assert.assertTrue(RetryPolicy.DEFAULT.isRetryable(503));
+        Assert.assertTrue(RetryPolicy.DEFAULT.isRetryable(429));
+        Assert.assertFalse(RetryPolicy.DEFAULT.isRetryable(404));
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(2, 50);
+        breaker.onFailure();
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.onFailure();
+        Assert.assertFalse(breaker.allowRequest());
+        Thread.sleep(60);
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertFalse(breaker.allowRequest());
+        breaker.onFailure();
+        Assert.assertFalse(breaker.allowRequest());
+        Thread.sleep(60);
+        Assert.assertTrue(breaker.allowRequest());
+        breaker.onSuccess();
+        Assert.assertTrue(breaker.allowRequest());
+        Assert.assertTrue(breaker.allowRequest());
+    }
+}
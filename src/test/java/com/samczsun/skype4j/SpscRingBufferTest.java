@@ -0,0 +1,108 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.pipeline.SpscRingBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+public class SpscRingBufferTest {
+    @Test
+    public void testHandOffInOrder() throws Exception {
+        SpscRingBuffer<Long> buffer = new SpscRingBuffer<>(8);
+        long items = 200000;
+        AtomicLong expected = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            try {
+                while (expected.get() < items) {
+                    buffer.await();
+                    buffer.drain(item -> {
+                        Assert.assertEquals(expected.getAndIncrement(), (long) item);
+                        return true;
+                    }, 4);
+                }
+            } catch (InterruptedException ignored) {
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        consumer.start();
+        for (long i = 0; i < items; i++) {
+            buffer.put(i);
+        }
+        consumer.join(10000);
+        if (failure.get() != null) {
+            throw new AssertionError("Consumer failed", failure.get());
+        }
+        Assert.assertFalse(consumer.isAlive());
+        Assert.assertEquals(items, expected.get());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testFull() throws Exception {
+        SpscRingBuffer<String> buffer = new SpscRingBuffer<>(2);
+        Assert.assertTrue(buffer.offer("a"));
+        Assert.assertTrue(buffer.offer("b"));
+        Assert.assertFalse(buffer.offer("c"));
+        Thread producer = new Thread(() -> {
+            try {
+                buffer.put("c");
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+        Thread.sleep(100);
+        Assert.assertTrue(producer.isAlive());
+        StringBuilder drained = new StringBuilder();
+        buffer.drain(item -> drained.append(item) != null, 1);
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        buffer.drain(item -> drained.append(item) != null, 8);
+        Assert.assertEquals("abc", drained.toString());
+        Assert.assertEquals(1, buffer.getStalls());
+    }
+
+    @Test
+    public void testAbandonedPut() throws Exception {
+        SpscRingBuffer<String> buffer = new SpscRingBuffer<>(2);
+        buffer.put("a");
+        buffer.put("b");
+        AtomicBoolean abandoned = new AtomicBoolean();
+        AtomicBoolean added = new AtomicBoolean(true);
+        Thread producer = new Thread(() -> {
+            try {
+                added.set(buffer.put("c", abandoned::get));
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+        Thread.sleep(100);
+        Assert.assertTrue(producer.isAlive());
+        abandoned.set(true);
+        LockSupport.unpark(producer);
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertFalse(added.get());
+        Assert.assertEquals(2, buffer.size());
+    }
+
+    @Test
+    public void testRefused() throws Exception {
+        SpscRingBuffer<String> buffer = new SpscRingBuffer<>(4);
+        buffer.put("a");
+        buffer.put("b");
+        buffer.put("c");
+        StringBuilder drained = new StringBuilder();
+        Assert.assertEquals(1, buffer.drain(item -> !item.equals("b") && drained.append(item) != null, 8));
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals(2, buffer.drain(item -> drained.append(item) != null, 8));
+        Assert.assertEquals("abc", drained.toString());
+        Assert.assertFalse(buffer.tryPut("d") && buffer.tryPut("e") && buffer.tryPut("f") && buffer.tryPut("g") && buffer.tryPut("h"));
+        Assert.assertEquals(1, buffer.getStalls());
+    }
+}
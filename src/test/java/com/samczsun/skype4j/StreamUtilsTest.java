@@ -5,11 +5,21 @@ import junit.framework.TestCase;
 import org.junit.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Created by sam on 2015-07-10.
  */
 public class StreamUtilsTest extends TestCase {
+    private static final String BODY = "{\"eventMessages\":[{\"resource\":{\"content\":\"<b>hello</b>\"}}]}";
 
     @org.junit.Test
     public void testReadFully() throws Exception {
@@ -17,4 +27,53 @@ public class StreamUtilsTest extends TestCase {
         ByteArrayInputStream stream = new ByteArrayInputStream(data.getBytes());
         Assert.assertEquals(StreamUtils.readFully(stream), data);
     }
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void testGzip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(BODY, decode("gzip", out.toByteArray()));
+    }
+
+    @org.junit.Test
+    public void testDeflate() throws Exception {
+        for (boolean nowrap : new boolean[]{false, true}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (OutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap))) {
+                deflate.write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+            Assert.assertEquals(BODY, decode("deflate", out.toByteArray()));
+        }
+    }
+
+    @org.junit.Test
+    public void testIdentityAndEmpty() throws Exception {
+        Assert.assertEquals(BODY, decode(null, BODY.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals("", decode("gzip", new byte[0]));
+    }
+
+    private static String decode(String encoding, byte[] body) throws IOException {
+        HttpURLConnection connection = new HttpURLConnection(new URL("http://localhost/")) {
+            @Override
+            public String getContentEncoding() {
+                return encoding;
+            }
+
+            @Override
+            public void disconnect() {
+            }
+
+            @Override
+            public boolean usingProxy() {
+                return false;
+            }
+
+            @Override
+            public void connect() {
+            }
+        };
+        return StreamUtils.readFully(StreamUtils.decode(connection, new ByteArrayInputStream(body)));
+    }
+}
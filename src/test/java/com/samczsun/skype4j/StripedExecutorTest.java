@@ -0,0 +1,82 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.StripedExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class StripedExecutorTest {
+    private ExecutorService pool;
+    private StripedExecutor executor;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        executor = new StripedExecutor(pool);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testOrderedPerKey() throws Exception {
+        int keys = 8;
+        int tasks = 2000;
+        List<List<Integer>> seen = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            seen.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        CountDownLatch done = new CountDownLatch(keys * tasks);
+        for (int i = 0; i < tasks; i++) {
+            for (int key = 0; key < keys; key++) {
+                int value = i;
+                List<Integer> list = seen.get(key);
+                executor.execute("chat" + key, () -> {
+                    list.add(value);
+                    done.countDown();
+                });
+            }
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> list : seen) {
+            for (int i = 0; i < tasks; i++) {
+                Assert.assertEquals(i, (int) list.get(i));
+            }
+        }
+        long deadline = System.currentTimeMillis() + 1000;
+        while (executor.getActiveKeys() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, executor.getActiveKeys());
+    }
+
+    @Test
+    public void testSlowKeyDoesNotBlockOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slow = new CountDownLatch(1);
+        CountDownLatch fast = new CountDownLatch(1);
+        executor.execute("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        executor.execute("slow", slow::countDown);
+        executor.execute("fast", fast::countDown);
+        Assert.assertTrue(fast.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, slow.getCount());
+        release.countDown();
+        Assert.assertTrue(slow.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,44 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.internal.Endpoints;
+import com.samczsun.skype4j.internal.utils.UrlTemplate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+public class UrlTemplateTest {
+    @Test
+    public void testMatchesFormat() throws Exception {
+        for (Field field : Endpoints.class.getFields()) {
+            if (field.getType() != Endpoints.class || !Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String url = ((Endpoints) field.get(null)).url();
+            UrlTemplate template = UrlTemplate.compile(url);
+            Object[] args = new Object[template.getArity()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = i % 2 == 0 ? "arg" + i : i;
+            }
+            String expected = args.length == 0 ? url : String.format(url, args);
+            Assert.assertEquals(field.getName(), expected, template.render(args));
+        }
+    }
+
+    @Test
+    public void testPrefix() {
+        UrlTemplate template = UrlTemplate.compile("https://%sclient-s.gateway.messenger.live.com/v1/threads/%s/members/%s");
+        String prefix = template.prefix("bn2-");
+        Assert.assertEquals("https://bn2-client-s.gateway.messenger.live.com/v1/threads/", prefix);
+        Assert.assertEquals("https://bn2-client-s.gateway.messenger.live.com/v1/threads/19:abc@thread.skype/members/8:user",
+                template.render(prefix, 1, new Object[]{"19:abc@thread.skype", "8:user"}));
+    }
+
+    @Test
+    public void testLiteral() {
+        String url = "https://login.skype.com/logout?redirect_uri=https%3A%2F%2Fweb.skype.com";
+        Assert.assertEquals(url, UrlTemplate.compile(url).render(new Object[0]));
+        Assert.assertEquals("https://host/a%s", UrlTemplate.literal("https://host/a%s").render(new Object[0]));
+    }
+}
@@ -0,0 +1,54 @@
+package com.samczsun.skype4j;
+
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.internal.VirtualThreads;
+import com.samczsun.skype4j.simulator.GatewaySimulator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class VirtualThreadsTest {
+    @Test
+    public void testVirtualThreads() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            try {
+                new SkypeBuilder("user", "password").withVirtualThreads();
+                Assert.fail("Virtual threads should not be available");
+            } catch (UnsupportedOperationException expected) {
+            }
+            return;
+        }
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setPollTimeout(200);
+            Skype skype = new SkypeBuilder("user", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withVirtualThreads()
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            BlockingQueue<Thread> handlers = new LinkedBlockingQueue<>();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    handlers.add(Thread.currentThread());
+                }
+            });
+            skype.login();
+            skype.subscribe();
+            try {
+                simulator.deliverMessage("8:alice", "alice", "hello");
+                Thread handler = handlers.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull(handler);
+                Assert.assertTrue(handler.getName(), (Boolean) Thread.class.getMethod("isVirtual").invoke(handler));
+            } finally {
+                skype.logout();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.samczsun.skype4j.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scripted misbehaviour of a {@link Route}. A fault may delay the response, replace it with an error status,
+ * or drop the connection without responding at all
+ */
+public class Fault {
+    private final int status;
+    private final long delay;
+    private final boolean disconnect;
+    private final double probability;
+    private final AtomicInteger remaining;
+    private final String retryAfter;
+
+    private Fault(int status, long delay, boolean disconnect, double probability, int times, String retryAfter) {
+        this.status = status;
+        this.delay = delay;
+        this.disconnect = disconnect;
+        this.probability = probability;
+        this.remaining = new AtomicInteger(times);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Respond with the given status code instead of handling the request
+     */
+    public static Fault status(int status) {
+        return new Fault(status, 0, false, 1, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Delay the response by the given number of milliseconds, then handle the request as usual
+     */
+    public static Fault delay(long millis) {
+        return new Fault(0, millis, false, 1, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Close the connection without sending a response
+     */
+    public static Fault disconnect() {
+        return new Fault(0, 0, true, 1, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Only apply this fault to the given fraction of requests
+     */
+    public Fault withProbability(double probability) {
+        return new Fault(status, delay, disconnect, probability, remaining.get(), retryAfter);
+    }
+
+    /**
+     * Only apply this fault to the next given number of requests
+     */
+    public Fault times(int times) {
+        return new Fault(status, delay, disconnect, probability, times, retryAfter);
+    }
+
+    /**
+     * Send a Retry-After header with the error status
+     */
+    public Fault withRetryAfter(int seconds) {
+        return new Fault(status, delay, disconnect, probability, remaining.get(), String.valueOf(seconds));
+    }
+
+    boolean trigger() {
+        if (probability < 1 && ThreadLocalRandom.current().nextDouble() >= probability) {
+            return false;
+        }
+        return remaining.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0;
+    }
+
+    boolean isExhausted() {
+        return remaining.get() <= 0;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    long getDelay() {
+        return delay;
+    }
+
+    boolean isDisconnect() {
+        return disconnect;
+    }
+
+    String getRetryAfter() {
+        return retryAfter;
+    }
+}
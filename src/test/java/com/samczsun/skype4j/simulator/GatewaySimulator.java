@@ -0,0 +1,616 @@
+package com.samczsun.skype4j.simulator;
+
+import com.eclipsesource.json.JsonArray;
+import com.eclipsesource.json.JsonObject;
+import com.eclipsesource.json.JsonValue;
+import com.samczsun.skype4j.internal.StreamUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+
+/**
+ * A local stand-in for the Skype services used by the library. It implements enough of the login, endpoint,
+ * subscription, long polling, messaging, thread and asm object routes for a {@link com.samczsun.skype4j.Skype}
+ * built with {@link com.samczsun.skype4j.SkypeBuilder#withEndpointBase(String)} to log in, subscribe, receive and
+ * send messages. Incoming traffic can be scripted with {@link #deliverMessage(String, String, String)} and
+ * {@link #generateMessages(String, String, double)}, and failures with {@link #fault(Route, Fault)}.
+ * The trouter (websocket) service is not simulated, so registering the websocket fails and is reported as a
+ * non fatal error
+ */
+public class GatewaySimulator implements Closeable {
+    private static final String GATEWAY_URL = "https://" + Route.GATEWAY;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "GatewaySimulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ScheduledExecutorService generator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "GatewaySimulator-Generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<Route, List<Fault>> faults = new ConcurrentHashMap<>();
+    private final Map<Route, AtomicInteger> requests = new EnumMap<>(Route.class);
+    private final Map<String, Queue<JsonObject>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, List<JsonObject>> history = new ConcurrentHashMap<>();
+    private final Map<String, List<JsonObject>> sent = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> threads = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong(System.currentTimeMillis());
+    private final AtomicInteger tokens = new AtomicInteger();
+    private final String endpointId = "{" + UUID.randomUUID() + "}";
+
+    private volatile String username = "simulated";
+    private volatile long pollTimeout = 1000;
+    private volatile int maxEventsPerPoll = 100;
+    private volatile boolean keepHistory = true;
+    private volatile boolean chunked;
+
+    public GatewaySimulator() throws IOException {
+        this(null);
+    }
+
+    /**
+     * Create a simulator which serves HTTPS with the given context, such as one from {@link #createSslContext()}
+     */
+    public GatewaySimulator(SSLContext sslContext) throws IOException {
+        for (Route route : Route.values()) {
+            requests.put(route, new AtomicInteger());
+        }
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        if (sslContext == null) {
+            server = HttpServer.create(address, 0);
+        } else {
+            HttpsServer httpsServer = HttpsServer.create(address, 0);
+            httpsServer.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+            server = httpsServer;
+        }
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Get the base URL to pass to {@link com.samczsun.skype4j.SkypeBuilder#withEndpointBase(String)}
+     */
+    public String getBaseUrl() {
+        return (server instanceof HttpsServer ? "https://" : "http://") + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Create a context which both presents and trusts the simulator's self-signed certificate for 127.0.0.1
+     */
+    public static SSLContext createSslContext() throws IOException {
+        char[] password = "simulator".toCharArray();
+        try (InputStream in = GatewaySimulator.class.getResourceAsStream("simulator.jks")) {
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            keyStore.load(in, password);
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, password);
+            TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(keyStore);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Set how long a poll is held open when there are no events
+     */
+    public void setPollTimeout(long millis) {
+        this.pollTimeout = millis;
+    }
+
+    /**
+     * Set the largest number of events returned by a single poll
+     */
+    public void setMaxEventsPerPoll(int maxEventsPerPoll) {
+        this.maxEventsPerPoll = maxEventsPerPoll;
+    }
+
+    /**
+     * Set whether delivered messages are kept for history requests. Long running load tests should turn this off
+     */
+    public void setKeepHistory(boolean keepHistory) {
+        this.keepHistory = keepHistory;
+    }
+
+    /**
+     * Set whether responses are sent with chunked transfer encoding instead of a Content-Length
+     */
+    public void setChunked(boolean chunked) {
+        this.chunked = chunked;
+    }
+
+    /**
+     * Create a group chat which can be loaded by clients. The first member is the admin
+     */
+    public void addGroupChat(String id, String... members) {
+        List<String> list = new CopyOnWriteArrayList<>();
+        for (String member : members) {
+            list.add(member.contains(":") ? member : "8:" + member);
+        }
+        threads.put(id, list);
+    }
+
+    /**
+     * Apply a fault to every following request on the given route, until it is exhausted or cleared
+     */
+    public void fault(Route route, Fault fault) {
+        faults.computeIfAbsent(route, r -> new CopyOnWriteArrayList<>()).add(fault);
+    }
+
+    public void clearFaults() {
+        faults.clear();
+    }
+
+    /**
+     * Get the number of requests received on the given route, including faulted ones
+     */
+    public int getRequestCount(Route route) {
+        return requests.get(route).get();
+    }
+
+    /**
+     * Get the messages sent by clients to the given conversation
+     */
+    public List<JsonObject> getSentMessages(String conversation) {
+        List<JsonObject> messages = sent.get(conversation);
+        return messages == null ? Collections.emptyList() : new ArrayList<>(messages);
+    }
+
+    /**
+     * Deliver a raw event to every subscribed endpoint
+     */
+    public void deliver(JsonObject event) {
+        for (Queue<JsonObject> queue : new HashSet<>(subscriptions.values())) {
+            synchronized (queue) {
+                queue.add(event);
+                queue.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Deliver a new text message from the given user
+     *
+     * @param conversation The conversation, such as {@code 8:user} or {@code 19:id@thread.skype}
+     * @param from         The username of the sender
+     * @param content      The content of the message
+     * @return The message resource which was delivered
+     */
+    public JsonObject deliverMessage(String conversation, String from, String content) {
+        JsonObject resource = message(conversation, from, content);
+        deliver(new JsonObject()
+                .add("id", ids.incrementAndGet())
+                .add("type", "EventMessage")
+                .add("resourceType", "NewMessage")
+                .add("time", timestamp(System.currentTimeMillis()))
+                .add("resourceLink", GATEWAY_URL + "/v1/users/ME/conversations/" + conversation + "/messages/" + resource.get("id").asString())
+                .add("resource", resource));
+        return resource;
+    }
+
+    /**
+     * Deliver messages from the given user at a steady rate until the returned future is cancelled
+     */
+    public ScheduledFuture<?> generateMessages(String conversation, String from, double perSecond) {
+        AtomicLong counter = new AtomicLong();
+        return generateMessages(conversation, from, perSecond, () -> "Generated message " + counter.incrementAndGet());
+    }
+
+    /**
+     * Deliver messages from the given user at a steady rate until the returned future is cancelled, taking the
+     * content of each message from the supplier at the moment it is delivered
+     */
+    public ScheduledFuture<?> generateMessages(String conversation, String from, double perSecond, Supplier<String> content) {
+        long start = System.nanoTime();
+        AtomicLong delivered = new AtomicLong();
+        return generator.scheduleAtFixedRate(() -> {
+            long due = (long) ((System.nanoTime() - start) / 1e9 * perSecond);
+            while (delivered.get() < due) {
+                delivered.incrementAndGet();
+                deliverMessage(conversation, from, content.get());
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        generator.shutdownNow();
+        for (Queue<JsonObject> queue : subscriptions.values()) {
+            synchronized (queue) {
+                queue.notifyAll();
+            }
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private JsonObject message(String conversation, String from, String content) {
+        long now = System.currentTimeMillis();
+        String id = String.valueOf(ids.incrementAndGet());
+        JsonObject resource = new JsonObject()
+                .add("id", id)
+                .add("clientmessageid", id)
+                .add("type", "Message")
+                .add("messagetype", "RichText")
+                .add("contenttype", "text")
+                .add("content", content)
+                .add("conversationLink", GATEWAY_URL + "/v1/users/ME/conversations/" + conversation)
+                .add("from", GATEWAY_URL + "/v1/users/ME/contacts/" + (from.contains(":") ? from : "8:" + from))
+                .add("composetime", timestamp(now))
+                .add("originalarrivaltime", timestamp(now));
+        if (keepHistory) {
+            history.computeIfAbsent(conversation, c -> new CopyOnWriteArrayList<>()).add(resource);
+        }
+        return resource;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String rawPath = exchange.getRequestURI().getRawPath();
+            int slash = rawPath.indexOf('/', 1);
+            String host = slash < 0 ? rawPath.substring(1) : rawPath.substring(1, slash);
+            String path = URLDecoder.decode((slash < 0 ? "/" : rawPath.substring(slash)).replace("+", "%2B"), "UTF-8");
+            String method = exchange.getRequestMethod();
+            byte[] body = readBody(exchange);
+
+            for (Route route : Route.values()) {
+                Matcher matcher = route.match(method, host, path);
+                if (matcher != null) {
+                    requests.get(route).incrementAndGet();
+                    if (!applyFaults(route, exchange)) {
+                        handle(route, matcher, exchange, body);
+                    }
+                    return;
+                }
+            }
+            respond(exchange, 404, null);
+        } catch (RuntimeException e) {
+            respond(exchange, 500, new JsonObject().add("error", String.valueOf(e)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean applyFaults(Route route, HttpExchange exchange) throws IOException {
+        List<Fault> list = faults.get(route);
+        if (list == null) {
+            return false;
+        }
+        for (Fault fault : list) {
+            if (fault.trigger()) {
+                if (fault.isExhausted()) {
+                    list.remove(fault);
+                }
+                if (fault.getDelay() > 0) {
+                    try {
+                        Thread.sleep(fault.getDelay());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return true;
+                    }
+                }
+                if (fault.isDisconnect()) {
+                    return true;
+                }
+                if (fault.getStatus() != 0) {
+                    if (fault.getRetryAfter() != null) {
+                        exchange.getResponseHeaders().add("Retry-After", fault.getRetryAfter());
+                    }
+                    respond(exchange, fault.getStatus(), new JsonObject().add("errorCode", fault.getStatus()));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void handle(Route route, Matcher matcher, HttpExchange exchange, byte[] body) throws IOException {
+        switch (route) {
+            case LOGIN: {
+                Map<String, String> form = parseForm(new String(body, StandardCharsets.UTF_8));
+                if (form.get("username") != null) {
+                    this.username = form.get("username");
+                }
+                respond(exchange, 200, new JsonObject()
+                        .add("skypetoken", skypeToken())
+                        .add("expiresIn", 86400));
+                break;
+            }
+            case ASM_TOKEN:
+                exchange.getResponseHeaders().add("Set-Cookie", "skypetoken_asm=" + UUID.randomUUID() + "; path=/");
+                respond(exchange, 204, null);
+                break;
+            case AUTH_REQUESTS:
+                respond(exchange, 200, new JsonArray());
+                break;
+            case PROFILES: {
+                JsonArray profiles = new JsonArray();
+                for (JsonValue name : JsonValue.readFrom(new String(body, StandardCharsets.UTF_8)).asObject().get("usernames").asArray()) {
+                    profiles.add(new JsonObject()
+                            .add("username", name.asString())
+                            .add("firstname", name.asString())
+                            .add("displayname", name.asString()));
+                }
+                respond(exchange, 200, profiles);
+                break;
+            }
+            case CONTACTS:
+                respond(exchange, 200, new JsonObject().add("contacts", new JsonArray()).add("count", 0));
+                break;
+            case LOGOUT:
+                exchange.getResponseHeaders().add("Location", "https://web.skype.com");
+                respond(exchange, 302, null);
+                break;
+            case REGISTER_ENDPOINT:
+                exchange.getResponseHeaders().add("Set-RegistrationToken", registrationToken());
+                exchange.getResponseHeaders().add("Location", GATEWAY_URL + "/v1/users/ME/endpoints");
+                respond(exchange, 201, new JsonObject());
+                break;
+            case UPDATE_ENDPOINT: {
+                // The subscription outlives the registration token, and the old token stays valid until it expires
+                String token = registrationToken();
+                Queue<JsonObject> queue = subscriptions.get(subscriber(exchange));
+                if (queue != null) {
+                    subscriptions.put(token.split(";")[0], queue);
+                }
+                exchange.getResponseHeaders().add("Set-RegistrationToken", token);
+                respond(exchange, 200, new JsonObject().add("subscriptions", new JsonArray().add(new JsonObject().add("id", 0))));
+                break;
+            }
+            case SUBSCRIBE:
+                subscriptions.putIfAbsent(subscriber(exchange), new ArrayDeque<>());
+                exchange.getResponseHeaders().add("Location", GATEWAY_URL + "/v1/users/ME/endpoints/SELF/subscriptions/0");
+                respond(exchange, 201, null);
+                break;
+            case POLL:
+                poll(exchange);
+                break;
+            case ACTIVE:
+                respond(exchange, 201, null);
+                break;
+            case CONVERSATIONS:
+                respond(exchange, 200, new JsonObject()
+                        .add("conversations", new JsonArray())
+                        .add("_metadata", new JsonObject().add("totalCount", 0).add("syncState", "simulated")));
+                break;
+            case HISTORY: {
+                List<JsonObject> messages = history.getOrDefault(matcher.group(1), Collections.emptyList());
+                int pageSize = Integer.parseInt(parseForm(exchange.getRequestURI().getRawQuery()).getOrDefault("pageSize", "100"));
+                JsonArray page = new JsonArray();
+                for (int i = messages.size() - 1; i >= 0 && page.size() < pageSize; i--) {
+                    page.add(messages.get(i));
+                }
+                respond(exchange, 200, new JsonObject()
+                        .add("messages", page)
+                        .add("_metadata", new JsonObject().add("totalCount", page.size()).add("syncState", "simulated")));
+                break;
+            }
+            case SEND_MESSAGE: {
+                JsonObject message = JsonValue.readFrom(new String(body, StandardCharsets.UTF_8)).asObject();
+                sent.computeIfAbsent(matcher.group(1), c -> new CopyOnWriteArrayList<>()).add(message);
+                long now = System.currentTimeMillis();
+                JsonObject stored = new JsonObject();
+                for (JsonObject.Member member : message) {
+                    stored.add(member.getName(), member.getValue());
+                }
+                history.computeIfAbsent(matcher.group(1), c -> new CopyOnWriteArrayList<>()).add(stored
+                        .add("id", String.valueOf(ids.incrementAndGet()))
+                        .add("from", GATEWAY_URL + "/v1/users/ME/contacts/8:" + username)
+                        .add("originalarrivaltime", timestamp(now)));
+                respond(exchange, 201, new JsonObject().add("OriginalArrivalTime", now));
+                break;
+            }
+            case CREATE_THREAD: {
+                String id = "19:" + UUID.randomUUID().toString().replace("-", "") + "@thread.skype";
+                List<String> members = new CopyOnWriteArrayList<>();
+                for (JsonValue member : JsonValue.readFrom(new String(body, StandardCharsets.UTF_8)).asObject().get("members").asArray()) {
+                    members.add(member.asObject().get("id").asString());
+                }
+                threads.put(id, members);
+                exchange.getResponseHeaders().add("Location", GATEWAY_URL + "/v1/threads/" + id);
+                respond(exchange, 201, null);
+                break;
+            }
+            case THREAD_INFO: {
+                List<String> members = threads.get(matcher.group(1));
+                if (members == null) {
+                    respond(exchange, 404, null);
+                    break;
+                }
+                JsonArray array = new JsonArray();
+                for (int i = 0; i < members.size(); i++) {
+                    array.add(new JsonObject().add("id", members.get(i)).add("role", i == 0 ? "Admin" : "User"));
+                }
+                respond(exchange, 200, new JsonObject()
+                        .add("id", matcher.group(1))
+                        .add("properties", new JsonObject().add("topic", ""))
+                        .add("members", array));
+                break;
+            }
+            case MEMBER: {
+                List<String> members = threads.get(matcher.group(1));
+                if (members != null) {
+                    String member = matcher.group(2);
+                    if (exchange.getRequestMethod().equals("DELETE")) {
+                        members.remove(member);
+                    } else if (!members.contains(member)) {
+                        members.add(member);
+                    }
+                }
+                respond(exchange, members == null ? 404 : 200, null);
+                break;
+            }
+            case CREATE_OBJECT: {
+                String id = "0-sim-" + ids.incrementAndGet();
+                objects.put(id, new byte[0]);
+                respond(exchange, 201, new JsonObject().add("id", id));
+                break;
+            }
+            case UPLOAD_OBJECT:
+                objects.put(matcher.group(1), body);
+                respond(exchange, 201, null);
+                break;
+            case OBJECT_STATUS:
+                respond(exchange, objects.containsKey(matcher.group(1)) ? 200 : 404, new JsonObject().add("view_state", "ready"));
+                break;
+            case FETCH_OBJECT: {
+                byte[] data = objects.get(matcher.group(1));
+                if (data == null) {
+                    respond(exchange, 404, null);
+                } else {
+                    exchange.sendResponseHeaders(200, data.length == 0 ? -1 : data.length);
+                    exchange.getResponseBody().write(data);
+                }
+                break;
+            }
+            case TROUTER:
+                respond(exchange, 404, null);
+                break;
+            case ELIGIBILITY:
+            case SESSION_PING:
+            case MESSAGING_SERVICE:
+            case PRESENCE:
+            case CONVERSATION_PROPERTY:
+            case THREAD_PROPERTY:
+            default:
+                respond(exchange, 200, new JsonObject());
+                break;
+        }
+    }
+
+    private void poll(HttpExchange exchange) throws IOException {
+        Queue<JsonObject> queue = subscriptions.get(subscriber(exchange));
+        if (queue == null) {
+            respond(exchange, 404, new JsonObject().add("errorCode", 729));
+            return;
+        }
+        JsonArray events = new JsonArray();
+        synchronized (queue) {
+            long deadline = System.currentTimeMillis() + pollTimeout;
+            long remaining;
+            while (queue.isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    queue.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            while (!queue.isEmpty() && events.size() < maxEventsPerPoll) {
+                events.add(queue.poll());
+            }
+        }
+        respond(exchange, 200, events.isEmpty() ? new JsonObject() : new JsonObject().add("eventMessages", events));
+    }
+
+    private String subscriber(HttpExchange exchange) {
+        String token = exchange.getRequestHeaders().getFirst("RegistrationToken");
+        return token == null ? "" : token;
+    }
+
+    private String skypeToken() {
+        Base64.Encoder encoder = Base64.getEncoder();
+        String header = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(new JsonObject()
+                .add("skypeid", username)
+                .add("exp", System.currentTimeMillis() / 1000 + 86400)
+                .toString()
+                .getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".simulated";
+    }
+
+    private String registrationToken() {
+        return "registrationToken=simulated-" + tokens.incrementAndGet()
+                + "; expires=" + (System.currentTimeMillis() / 1000 + 86400)
+                + "; endpointId=" + endpointId;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonValue body) throws IOException {
+        if (body == null || status == 204) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] data = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, chunked ? 0 : data.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data);
+        }
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamUtils.copy(exchange.getRequestBody(), out);
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> parseForm(String form) throws IOException {
+        Map<String, String> result = new HashMap<>();
+        if (form == null) {
+            return result;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                result.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return result;
+    }
+
+    private static String timestamp(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(new Date(millis));
+    }
+}
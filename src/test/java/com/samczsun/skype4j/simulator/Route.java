@@ -0,0 +1,62 @@
+package com.samczsun.skype4j.simulator;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The routes understood by {@link GatewaySimulator}, named after the service they stand in for
+ */
+public enum Route {
+    ELIGIBILITY("GET", "web.skype.com", "/api/v2/eligibility-check"),
+    SESSION_PING("POST", "web.skype.com", "/api/v1/session-ping"),
+    LOGIN("POST", "api.skype.com", "/login/skypetoken"),
+    AUTH_REQUESTS("GET", "api.skype.com", "/users/self/contacts/auth-request"),
+    PROFILES("POST", "api.skype.com", "/users/batch/profiles"),
+    LOGOUT("GET", "login.skype.com", "/logout"),
+    CONTACTS("GET", "contacts.skype.com", "/contacts/v1/users/([^/]+)/contacts"),
+    TROUTER(null, "go.trouter.io", "/.*"),
+    ASM_TOKEN("POST", "api.asm.skype.com", "/v1/skypetokenauth"),
+    CREATE_OBJECT("POST", "api.asm.skype.com", "/v1/objects"),
+    UPLOAD_OBJECT("PUT", "api.asm.skype.com", "/v1/objects/([^/]+)/content/([^/]+)"),
+    OBJECT_STATUS("GET", "api.asm.skype.com", "/v1/objects/([^/]+)/views/([^/]+)/status"),
+    FETCH_OBJECT("GET", "api.asm.skype.com", "/v1/objects/([^/]+)/views/([^/]+)"),
+    REGISTER_ENDPOINT("POST", Route.GATEWAY, "/v1/users/ME/endpoints"),
+    SUBSCRIBE("POST", Route.GATEWAY, "/v1/users/ME/endpoints/SELF/subscriptions"),
+    POLL("POST", Route.GATEWAY, "/v1/users/ME/endpoints/SELF/subscriptions/(\\d+)/poll"),
+    UPDATE_ENDPOINT("PUT", Route.GATEWAY, "/v1/users/ME/endpoints/([^/]+)"),
+    ACTIVE("POST", Route.GATEWAY, "/v1/users/ME/endpoints/([^/]+)/active"),
+    MESSAGING_SERVICE("PUT", Route.GATEWAY, "/v1/users/ME/endpoints/([^/]+)/presenceDocs/messagingService"),
+    PRESENCE("PUT", Route.GATEWAY, "/v1/users/ME/presenceDocs/messagingService"),
+    CONVERSATIONS("GET", Route.GATEWAY, "/v1/users/ME/conversations"),
+    HISTORY("GET", Route.GATEWAY, "/v1/users/ME/conversations/([^/]+)/messages"),
+    SEND_MESSAGE("POST", Route.GATEWAY, "/v1/users/ME/conversations/([^/]+)/messages"),
+    CONVERSATION_PROPERTY("PUT", Route.GATEWAY, "/v1/users/ME/conversations/([^/]+)/properties"),
+    CREATE_THREAD("POST", Route.GATEWAY, "/v1/threads"),
+    THREAD_INFO("GET", Route.GATEWAY, "/v1/threads/([^/]+)/?"),
+    THREAD_PROPERTY("PUT", Route.GATEWAY, "/v1/threads/([^/]+)/properties"),
+    MEMBER(null, Route.GATEWAY, "/v1/threads/([^/]+)/members/([^/]+)");
+
+    static final String GATEWAY = "client-s.gateway.messenger.live.com";
+
+    private final String method;
+    private final String host;
+    private final Pattern path;
+
+    Route(String method, String host, String path) {
+        this.method = method;
+        this.host = host;
+        this.path = Pattern.compile(path);
+    }
+
+    Matcher match(String method, String host, String path) {
+        if (this.method != null && !this.method.equalsIgnoreCase(method)) {
+            return null;
+        }
+        // Cloud specific gateways are prefixed, as in db3-client-s.gateway.messenger.live.com
+        if (this.host.equals(GATEWAY) ? !host.endsWith(GATEWAY) : !host.equals(this.host)) {
+            return null;
+        }
+        Matcher matcher = this.path.matcher(path);
+        return matcher.matches() ? matcher : null;
+    }
+}
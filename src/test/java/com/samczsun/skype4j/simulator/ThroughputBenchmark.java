@@ -0,0 +1,164 @@
+package com.samczsun.skype4j.simulator;
+
+import com.samczsun.skype4j.Skype;
+import com.samczsun.skype4j.SkypeBuilder;
+import com.samczsun.skype4j.events.EventHandler;
+import com.samczsun.skype4j.events.Listener;
+import com.samczsun.skype4j.events.chat.message.MessageReceivedEvent;
+import com.samczsun.skype4j.internal.metrics.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives simulated {@code NewMessage} events through the real poll, event and message handling path into a
+ * listener, and reports the sustained event rate, the lag between the simulator delivering an event and the
+ * listener receiving it, and the bytes allocated by the client while doing so.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.samczsun.skype4j.simulator.ThroughputBenchmark -Dexec.args="chats rate seconds"}
+ * where rate is the number of messages per second in each chat
+ */
+public class ThroughputBenchmark {
+    private final int chats;
+    private final double messagesPerSecond;
+    private final long warmup;
+    private final long duration;
+
+    private final LongAdder events = new LongAdder();
+    private volatile LatencyHistogram lag = new LatencyHistogram();
+
+    public ThroughputBenchmark(int chats, double messagesPerSecond, long warmup, long duration) {
+        this.chats = chats;
+        this.messagesPerSecond = messagesPerSecond;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+
+    public Result run() throws Exception {
+        try (GatewaySimulator simulator = new GatewaySimulator()) {
+            simulator.setKeepHistory(false);
+            simulator.setMaxEventsPerPoll(Integer.MAX_VALUE);
+            Skype skype = new SkypeBuilder("benchmark", "password")
+                    .withAllResources()
+                    .withEndpointBase(simulator.getBaseUrl())
+                    .withExceptionHandler((errorSource, throwable, shutdown) -> {
+                    })
+                    .build();
+            skype.getEventDispatcher().registerListener(new Listener() {
+                @EventHandler
+                public void onMessage(MessageReceivedEvent event) {
+                    long sent = Long.parseLong(event.getMessage().getContent().asPlaintext());
+                    lag.record((System.nanoTime() - sent) / 1000);
+                    events.increment();
+                }
+            });
+            skype.login();
+            skype.subscribe();
+
+            List<Future<?>> generators = new ArrayList<>();
+            for (int i = 0; i < chats; i++) {
+                generators.add(simulator.generateMessages("8:sender" + i, "sender" + i, messagesPerSecond,
+                        () -> Long.toString(System.nanoTime())));
+            }
+            try {
+                Thread.sleep(warmup);
+                lag = new LatencyHistogram();
+                events.reset();
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                Thread.sleep(duration);
+                long elapsed = System.nanoTime() - start;
+                return new Result(events.sum(), elapsed, lag, allocatedBytes() - allocated);
+            } finally {
+                for (Future<?> generator : generators) {
+                    generator.cancel(false);
+                }
+                skype.logout();
+            }
+        }
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null || info.getThreadName().startsWith("GatewaySimulator") || info.getThreadName().startsWith("HTTP-Dispatcher")) {
+                continue;
+            }
+            long bytes = threads.getThreadAllocatedBytes(info.getThreadId());
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    public static class Result {
+        private final long events;
+        private final long elapsedNanos;
+        private final LatencyHistogram lag;
+        private final long allocatedBytes;
+
+        private Result(long events, long elapsedNanos, LatencyHistogram lag, long allocatedBytes) {
+            this.events = events;
+            this.elapsedNanos = elapsedNanos;
+            this.lag = lag;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public double getEventsPerSecond() {
+            return events / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Get the dispatch lag at the given percentile, in milliseconds
+         */
+        public double getLagPercentile(double percentile) {
+            return lag.getPercentile(percentile) / 1000.0;
+        }
+
+        public double getMaxLag() {
+            return lag.getMax() / 1000.0;
+        }
+
+        public double getAllocatedBytesPerSecond() {
+            return allocatedBytes / (elapsedNanos / 1e9);
+        }
+
+        public double getAllocatedBytesPerEvent() {
+            return events == 0 ? 0 : allocatedBytes / (double) events;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f events/s, lag p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms, " +
+                            "allocated %.1f MB/s (%.0f bytes/event)",
+                    getEventsPerSecond(), getLagPercentile(50), getLagPercentile(90), getLagPercentile(99), getMaxLag(),
+                    getAllocatedBytesPerSecond() / (1024 * 1024), getAllocatedBytesPerEvent());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int chats = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        double rate = args.length > 1 ? Double.parseDouble(args[1]) : 100;
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 30;
+        Result result = new ThroughputBenchmark(chats, rate, TimeUnit.SECONDS.toMillis(5), TimeUnit.SECONDS.toMillis(seconds)).run();
+        System.out.println(chats + " chats x " + rate + " messages/s: " + result);
+        System.exit(0);
+    }
+}